@@ -12,25 +12,32 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class GameActivity extends AppCompatActivity {
 
     private EditText numberInputEditText;
     private Button markNumberButton;
+    private Button oddsButton;
     private TextView calledNumbersTextView;
+    private TextView nearWinsTextView;
+    private TextView ticketsLabel;
     private RecyclerView ticketsRecyclerView;
     private TicketManager ticketManager;
     private GameTicketAdapter adapter;
+    private GameEngine engine;
+    private NearWinTracker nearWinTracker;
+    private long enabledPatterns;
+    private ExecutorService oddsExecutor;
+    private Future<?> oddsTask;
     
-    private Set<Integer> calledNumbers = new HashSet<>();
-    private List<String> wonPatterns = new ArrayList<>();
-    private Map<String, String> patternEmojis = new HashMap<>();
+    private static final int NEAR_WIN_PANEL_SIZE = 5;
     
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -41,57 +48,44 @@ public class GameActivity extends AppCompatActivity {
         
         numberInputEditText = findViewById(R.id.numberInputEditText);
         markNumberButton = findViewById(R.id.markNumberButton);
+        oddsButton = findViewById(R.id.oddsButton);
         calledNumbersTextView = findViewById(R.id.calledNumbersTextView);
+        nearWinsTextView = findViewById(R.id.nearWinsTextView);
+        ticketsLabel = findViewById(R.id.ticketsLabel);
         ticketsRecyclerView = findViewById(R.id.ticketsRecyclerView);
         
         ticketsRecyclerView.setLayoutManager(new LinearLayoutManager(this));
-        adapter = new GameTicketAdapter(this, ticketManager.getTickets());
-        ticketsRecyclerView.setAdapter(adapter);
-        
+        oddsExecutor = Executors.newSingleThreadExecutor();
         markNumberButton.setOnClickListener(v -> markCalledNumber());
+        oddsButton.setOnClickListener(v -> showWinOdds());
         
-        initializePatternEmojis();
+        // Placeholder until the book has loaded in the background
+        markNumberButton.setEnabled(false);
+        oddsButton.setEnabled(false);
+        ticketsLabel.setText("Loading tickets...");
+        ticketManager.whenReady(() -> {
+            if (!isDestroyed()) {
+                onTicketsLoaded();
+            }
+        });
     }
     
-    private void initializePatternEmojis() {
-        // Basic patterns
-        patternEmojis.put("Top Line", "🥇");
-        patternEmojis.put("Centre Line", "🎯");
-        patternEmojis.put("Bottom Line", "🏁");
-        patternEmojis.put("Four Corners", "🔹");
-        patternEmojis.put("Six Corners", "🔶");
-        patternEmojis.put("Full House", "🏆");
-        
-        // Number range patterns
-        patternEmojis.put("Breakfast", "🍳");
-        patternEmojis.put("Lunch", "🍔");
-        patternEmojis.put("Dinner", "🍽️");
-        patternEmojis.put("Straight Brunch", "🍽️");
-        patternEmojis.put("Reverse Brunch", "🍝");
-        
-        // Position-based patterns
-        patternEmojis.put("Twins", "👯");
-        patternEmojis.put("Reverse Twins", "👯‍♂️");
-        patternEmojis.put("Triplets", "👨‍👩‍👦");
-        patternEmojis.put("Reverse Triplets", "👨‍👩‍👧");
-        patternEmojis.put("Ladder", "🪜");
-        patternEmojis.put("Reverse Ladder", "↕️");
-        patternEmojis.put("Lover's Lane", "💑");
-        patternEmojis.put("Reverse Lover's Lane", "💏");
-        patternEmojis.put("Tennis", "🎾");
-        patternEmojis.put("Stumps", "🏏");
-        patternEmojis.put("Round the World", "🌎");
-        patternEmojis.put("Letter H", "Ⓗ");
-        
-        // Quick patterns
-        patternEmojis.put("Quick-12", "⏱️");
-        patternEmojis.put("Quick-13", "⌚");
-        patternEmojis.put("Quick-14", "⏰");
-        
-        // Line combinations
-        patternEmojis.put("Top & Centre Line", "⬆️");
-        patternEmojis.put("Centre & Bottom Line", "⬇️");
-        patternEmojis.put("Top & Bottom Line", "↕️");
+    private void onTicketsLoaded() {
+        enabledPatterns = getIntent().getLongExtra(GameConfig.EXTRA_ENABLED_PATTERNS, GameConfig.allPatterns());
+        
+        // The engine marks the shared ticket objects and tracks wins for this game
+        engine = new GameEngine(enabledPatterns);
+        engine.load(ticketManager.getTickets());
+        
+        adapter = new GameTicketAdapter(this, ticketManager.getTickets(), engine);
+        ticketsRecyclerView.setAdapter(adapter);
+        nearWinTracker = new NearWinTracker(ticketManager.getTickets(), enabledPatterns);
+        engine.addCellMarkedListener(nearWinTracker);
+        updateNearWinsDisplay();
+        
+        ticketsLabel.setText("Your Tickets:");
+        markNumberButton.setEnabled(true);
+        oddsButton.setEnabled(true);
     }
     
     private void markCalledNumber() {
@@ -110,26 +104,27 @@ public class GameActivity extends AppCompatActivity {
                 return;
             }
             
-            if (calledNumbers.contains(number)) {
+            if (engine.isCalled(number)) {
                 Toast.makeText(this, "Number " + number + " has already been called", Toast.LENGTH_SHORT).show();
                 return;
             }
             
-            // Mark the number in all tickets
-            ticketManager.markNumberInAllTickets(number);
+            // Mark the number in all tickets, and save the call with the book
+            List<WinTracker.WinEvent> events = engine.callNumber(number);
+            ticketManager.recordNumberCalled(number);
             
             // Update called numbers display
-            calledNumbers.add(number);
             updateCalledNumbersDisplay();
             
-            // Update tickets display
-            adapter.notifyDataSetChanged();
-            
             // Clear input field
             numberInputEditText.setText("");
             
-            // Check for winning patterns
-            checkWinningPatterns();
+            // Redraw only the tickets that hold the number, then announce wins
+            updateMarkedTickets(events);
+            updateNearWinsDisplay();
+            for (WinTracker.WinEvent event : events) {
+                showWinningPatternDialog(event);
+            }
             
         } catch (NumberFormatException e) {
             Toast.makeText(this, "Please enter a valid number", Toast.LENGTH_SHORT).show();
@@ -139,44 +134,158 @@ public class GameActivity extends AppCompatActivity {
     private void updateCalledNumbersDisplay() {
         StringBuilder sb = new StringBuilder("Called Numbers: ");
         
-        for (Integer number : calledNumbers) {
+        int[] calledNumbers = engine.getCalledNumbers();
+        for (int number : calledNumbers) {
             sb.append(number).append(", ");
         }
         
         // Remove the trailing comma and space
-        if (!calledNumbers.isEmpty()) {
+        if (calledNumbers.length > 0) {
             sb.setLength(sb.length() - 2);
         }
         
         calledNumbersTextView.setText(sb.toString());
     }
     
-    private void checkWinningPatterns() {
+    private void showWinOdds() {
+        // Only the prizes still open in this game are simulated
+        long openPatterns = 0;
+        for (int p = 0; p < PatternRegistry.getDefault().size(); p++) {
+            if (GameConfig.isEnabled(enabledPatterns, p) && engine.isPatternActive(p)) {
+                openPatterns |= 1L << p;
+            }
+        }
         List<Ticket> tickets = ticketManager.getTickets();
+        Set<Integer> calledNumbers = new HashSet<>();
+        for (int number : engine.getCalledNumbers()) {
+            calledNumbers.add(number);
+        }
+        WinOddsEstimator estimator = new WinOddsEstimator(tickets, calledNumbers, openPatterns);
         
-        for (int i = 0; i < tickets.size(); i++) {
-            Ticket ticket = tickets.get(i);
-            List<String> patterns = ticket.checkWinningPatterns();
+        oddsButton.setEnabled(false);
+        Toast.makeText(this, "Calculating odds...", Toast.LENGTH_SHORT).show();
+        oddsTask = oddsExecutor.submit(() -> {
+            WinOddsEstimator.Result result = estimator.estimate(System.nanoTime());
+            runOnUiThread(() -> {
+                if (!isDestroyed()) {
+                    oddsButton.setEnabled(true);
+                    showWinOddsDialog(tickets, result);
+                }
+            });
+        });
+    }
+    
+    private void showWinOddsDialog(List<Ticket> tickets, WinOddsEstimator.Result result) {
+        StringBuilder sb = new StringBuilder();
+        for (int pattern : result.getPatterns()) {
+            WinningPattern winningPattern = PatternRegistry.getDefault().get(pattern);
+            sb.append(winningPattern.getEmoji()).append(" ").append(winningPattern.getName());
+            
+            int favourite = result.getFavourite(pattern);
+            if (favourite < 0) {
+                sb.append(": no ticket can win\n\n");
+                continue;
+            }
+            sb.append(String.format(Locale.US, ": ~%.1f more calls\nBest chance: %s (%.1f%%)\n\n",
+                    result.getExpectedCalls(pattern),
+                    tickets.get(favourite).getTicketId(),
+                    100 * result.getClaimProbability(pattern, favourite)));
+        }
+        if (sb.length() == 0) {
+            sb.append("All prizes have been claimed.");
+        }
+        
+        new AlertDialog.Builder(this)
+                .setTitle("Win Odds (" + result.getSimulations() + " games simulated)")
+                .setMessage(sb.toString().trim())
+                .setPositiveButton("OK", null)
+                .show();
+    }
+    
+    private void updateNearWinsDisplay() {
+        // Closest few tickets, with the numbers that would finish them when one away
+        List<Ticket> closest = nearWinTracker.getClosestTickets(NEAR_WIN_PANEL_SIZE);
+        if (closest.isEmpty()) {
+            nearWinsTextView.setVisibility(View.GONE);
+            return;
+        }
+        
+        StringBuilder sb = new StringBuilder("Closest to a prize:");
+        for (Ticket ticket : closest) {
+            int distance = nearWinTracker.getDistance(ticket);
+            sb.append("\n").append(ticket.getTicketId()).append(" - ")
+                    .append(distance).append(" away: ");
             
-            for (String pattern : patterns) {
-                String winKey = ticket.getTicketId() + "-" + pattern;
-                
-                if (!wonPatterns.contains(winKey)) {
-                    wonPatterns.add(winKey);
-                    showWinningPatternDialog(ticket.getTicketId(), pattern, i);
+            List<Integer> patterns = nearWinTracker.getPatternsAtDistance(ticket, distance);
+            for (int i = 0; i < patterns.size(); i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                int pattern = patterns.get(i);
+                sb.append(PatternRegistry.getDefault().get(pattern).getName());
+                if (distance == 1) {
+                    sb.append(" (needs ");
+                    int[] numbers = NearWinTracker.getOutstandingNumbers(ticket, pattern);
+                    for (int j = 0; j < numbers.length; j++) {
+                        sb.append(j > 0 ? "/" : "").append(numbers[j]);
+                    }
+                    sb.append(")");
                 }
             }
         }
+        
+        nearWinsTextView.setText(sb.toString());
+        nearWinsTextView.setVisibility(View.VISIBLE);
+    }
+    
+    private void updateMarkedTickets(List<WinTracker.WinEvent> events) {
+        Set<Integer> winningPositions = new HashSet<>();
+        for (WinTracker.WinEvent event : events) {
+            winningPositions.add(event.position);
+        }
+        for (WinTracker.MarkChange change : engine.drainChanges()) {
+            boolean won = winningPositions.contains(change.position);
+            adapter.notifyItemChanged(change.position, new GameTicketAdapter.MarkPayload(change.cells, won));
+        }
+    }
+    
+    private void updatePrizeHolders(int pattern) {
+        // Every ticket showing the closed pattern among its wins relabels it as claimed
+        List<Ticket> tickets = engine.getTickets();
+        for (int i = 0; i < tickets.size(); i++) {
+            Ticket ticket = tickets.get(i);
+            long completed = ticket.getWinResult(engine.getPrizePatterns(ticket)).getCompletedPatterns();
+            if ((completed & (1L << pattern)) != 0) {
+                adapter.notifyItemChanged(i, GameTicketAdapter.PRIZES_CHANGED);
+            }
+        }
+    }
+    
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        // Stop a simulation still running for this screen
+        if (oddsTask != null) {
+            oddsTask.cancel(true);
+        }
+        oddsExecutor.shutdownNow();
     }
     
-    private void showWinningPatternDialog(String ticketId, String pattern, int position) {
-        String emoji = patternEmojis.getOrDefault(pattern, "🎉");
+    private void showWinningPatternDialog(WinTracker.WinEvent event) {
+        WinningPattern pattern = event.getPattern();
         
         new AlertDialog.Builder(this)
-                .setTitle("WINNER! " + emoji)
-                .setMessage("Congratulations!\n\nTicket " + ticketId + " has won: " + pattern + "\n\nCall out your win now!")
+                .setTitle("WINNER! " + pattern.getEmoji())
+                .setMessage("Congratulations!\n\nTicket " + event.ticket.getTicketId() + " has won: " + pattern.getName() + "\n\nCall out your win now!")
                 .setPositiveButton("View Ticket", (dialog, which) -> {
-                    ticketsRecyclerView.scrollToPosition(position);
+                    ticketsRecyclerView.scrollToPosition(event.position);
+                })
+                .setNeutralButton("Close Prize", (dialog, which) -> {
+                    // Prize has been claimed, stop checking it for every ticket;
+                    // the near-win panel hears of it through the engine
+                    engine.closePattern(event.pattern);
+                    updatePrizeHolders(event.pattern);
+                    updateNearWinsDisplay();
                 })
                 .setNegativeButton("Continue Playing", null)
                 .show();
@@ -0,0 +1,39 @@
+package com.example.housie_app;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+/**
+ * Which winning patterns are in play for a game, as a bitset of
+ * PatternRegistry indexes. The last selection is remembered between games.
+ */
+public class GameConfig {
+    public static final String EXTRA_ENABLED_PATTERNS = "enabled_patterns";
+
+    private static final String PREF_NAME = "housie_game_config";
+    private static final String ENABLED_PATTERNS_KEY = "enabled_patterns";
+
+    private GameConfig() {
+    }
+
+    public static long allPatterns() {
+        int count = PatternRegistry.getDefault().size();
+        return count == 64 ? -1L : (1L << count) - 1;
+    }
+
+    public static long loadEnabledPatterns(Context context) {
+        SharedPreferences preferences = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        return preferences.getLong(ENABLED_PATTERNS_KEY, allPatterns()) & allPatterns();
+    }
+
+    public static void saveEnabledPatterns(Context context, long enabledPatterns) {
+        context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE)
+                .edit()
+                .putLong(ENABLED_PATTERNS_KEY, enabledPatterns)
+                .apply();
+    }
+
+    public static boolean isEnabled(long enabledPatterns, int pattern) {
+        return (enabledPatterns & (1L << pattern)) != 0;
+    }
+}
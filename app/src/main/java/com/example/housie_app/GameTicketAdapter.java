@@ -5,12 +5,10 @@ import android.graphics.Color;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.GridLayout;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.cardview.widget.CardView;
-import androidx.core.content.ContextCompat;
 import androidx.recyclerview.widget.RecyclerView;
 
 import java.util.List;
@@ -19,10 +17,34 @@ public class GameTicketAdapter extends RecyclerView.Adapter<GameTicketAdapter.Ga
 
     private Context context;
     private List<Ticket> tickets;
+    private GameEngine engine;
+    private TicketManager ticketManager;
 
-    public GameTicketAdapter(Context context, List<Ticket> tickets) {
+    /**
+     * Partial update for a ticket that gained marks on a call
+     */
+    public static final class MarkPayload {
+        final int cells;
+        final boolean won;
+
+        public MarkPayload(int cells, boolean won) {
+            this.cells = cells;
+            this.won = won;
+        }
+    }
+
+    /**
+     * Partial update for a ticket whose prizes changed without new marks,
+     * e.g. when a pattern it completed is closed
+     */
+    public static final Object PRIZES_CHANGED = new Object();
+
+    public GameTicketAdapter(Context context, List<Ticket> tickets, GameEngine engine) {
         this.context = context;
         this.tickets = tickets;
+        this.engine = engine;
+        this.ticketManager = TicketManager.getInstance(context);
+        setHasStableIds(true);
     }
 
     @NonNull
@@ -38,6 +60,35 @@ public class GameTicketAdapter extends RecyclerView.Adapter<GameTicketAdapter.Ga
         holder.bind(ticket);
     }
 
+    @Override
+    public void onBindViewHolder(@NonNull GameTicketViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        // Only redraw the new marks, and the winnings if a pattern was completed or closed
+        boolean won = false;
+        for (Object payload : payloads) {
+            if (payload == PRIZES_CHANGED) {
+                won = true;
+                continue;
+            }
+            MarkPayload mark = (MarkPayload) payload;
+            holder.ticketGridView.markCells(mark.cells);
+            won |= mark.won;
+        }
+        if (won) {
+            holder.bindWinnings(tickets.get(position));
+        }
+    }
+
+    @Override
+    public long getItemId(int position) {
+        // Follows the ticket rather than its row, so a reordered or edited
+        // book never hands one ticket's view state to another
+        return ticketManager.getItemId(tickets.get(position).getTicketId());
+    }
+
     @Override
     public int getItemCount() {
         return tickets.size();
@@ -46,26 +97,28 @@ public class GameTicketAdapter extends RecyclerView.Adapter<GameTicketAdapter.Ga
     class GameTicketViewHolder extends RecyclerView.ViewHolder {
         CardView cardView;
         TextView ticketIdTextView;
-        GridLayout ticketGridLayout;
+        TicketGridView ticketGridView;
         TextView winningsTextView;
 
         public GameTicketViewHolder(@NonNull View itemView) {
             super(itemView);
             cardView = itemView.findViewById(R.id.ticketCardView);
             ticketIdTextView = itemView.findViewById(R.id.ticketIdTextView);
-            ticketGridLayout = itemView.findViewById(R.id.ticketGridLayout);
+            ticketGridView = itemView.findViewById(R.id.ticketGridView);
             winningsTextView = itemView.findViewById(R.id.winningsTextView);
         }
 
         public void bind(final Ticket ticket) {
             ticketIdTextView.setText(ticket.getTicketId());
-            
-            // Clear previous grid
-            ticketGridLayout.removeAllViews();
-            
-            // Check winning patterns
-            List<String> winningPatterns = ticket.checkWinningPatterns();
-            boolean hasWinnings = !winningPatterns.isEmpty();
+            ticketGridView.setTicket(ticket);
+            bindWinnings(ticket);
+        }
+
+        void bindWinnings(Ticket ticket) {
+            // Only prizes still open or already won by this ticket count; cached
+            // on the ticket, so rebinding an unchanged ticket evaluates nothing
+            Ticket.WinResult wins = ticket.getWinResult(engine.getPrizePatterns(ticket));
+            boolean hasWinnings = wins.hasWins();
             
             // If this ticket has winnings, make the card stand out
             if (hasWinnings) {
@@ -76,48 +129,8 @@ public class GameTicketAdapter extends RecyclerView.Adapter<GameTicketAdapter.Ga
                 cardView.setCardElevation(4f);
             }
             
-            // Create the ticket grid
-            for (int i = 0; i < Ticket.ROWS; i++) {
-                for (int j = 0; j < Ticket.COLS; j++) {
-                    Integer number = ticket.getNumber(i, j);
-                    
-                    TextView cell = new TextView(context);
-                    cell.setTextSize(16);
-                    cell.setPadding(8, 8, 8, 8);
-                    cell.setTextAlignment(View.TEXT_ALIGNMENT_CENTER);
-                    
-                    if (number != null) {
-                        cell.setText(String.valueOf(number));
-                        
-                        if (ticket.isMarked(i, j)) {
-                            // Use a brighter background for marked numbers in winning tickets
-                            if (hasWinnings) {
-                                cell.setBackgroundColor(Color.rgb(105, 240, 174)); // Bright green
-                                cell.setTextColor(Color.BLACK);
-                                cell.setTextSize(18); // Make marked numbers larger
-                                cell.setTypeface(android.graphics.Typeface.DEFAULT_BOLD);
-                            } else {
-                                cell.setBackgroundResource(R.drawable.cell_marked_background);
-                                cell.setTextColor(Color.BLACK);
-                            }
-                        } else {
-                            cell.setBackgroundResource(R.drawable.cell_background);
-                        }
-                    } else {
-                        cell.setText("");
-                        cell.setBackgroundResource(R.drawable.cell_empty_background);
-                    }
-                    
-                    GridLayout.LayoutParams params = new GridLayout.LayoutParams();
-                    params.width = 0;
-                    params.height = GridLayout.LayoutParams.WRAP_CONTENT;
-                    params.rowSpec = GridLayout.spec(i, 1f);
-                    params.columnSpec = GridLayout.spec(j, 1f);
-                    params.setMargins(2, 2, 2, 2);
-                    
-                    ticketGridLayout.addView(cell, params);
-                }
-            }
+            // Marked numbers on a winning ticket are drawn brighter and larger
+            ticketGridView.setHighlightMarks(hasWinnings);
             
             // Display winning patterns if any
             if (hasWinnings) {
@@ -125,12 +138,7 @@ public class GameTicketAdapter extends RecyclerView.Adapter<GameTicketAdapter.Ga
                 winningsTextView.setTextSize(18);
                 winningsTextView.setTextColor(Color.rgb(0, 150, 136)); // Teal color
                 
-                StringBuilder sb = new StringBuilder("🎖️ WINNER: ");
-                for (String pattern : winningPatterns) {
-                    sb.append(pattern).append(", ");
-                }
-                sb.setLength(sb.length() - 2);  // Remove trailing comma and space
-                winningsTextView.setText(sb.toString());
+                winningsTextView.setText("🎖️ WINNER: " + describeWins(wins));
                 
                 // Add pulsating animation
                 winningsTextView.animate()
@@ -150,5 +158,32 @@ public class GameTicketAdapter extends RecyclerView.Adapter<GameTicketAdapter.Ga
                 winningsTextView.setVisibility(View.GONE);
             }
         }
+
+        // Pattern names, with the prizes already closed marked as claimed
+        private String describeWins(Ticket.WinResult wins) {
+            long completed = wins.getCompletedPatterns();
+            long claimed = 0;
+            for (long bits = completed; bits != 0; bits &= bits - 1) {
+                int p = Long.numberOfTrailingZeros(bits);
+                if (!engine.isPatternActive(p)) {
+                    claimed |= 1L << p;
+                }
+            }
+            if (claimed == 0) {
+                return wins.getSummary();
+            }
+            StringBuilder sb = new StringBuilder();
+            for (long bits = completed; bits != 0; bits &= bits - 1) {
+                int p = Long.numberOfTrailingZeros(bits);
+                if (sb.length() > 0) {
+                    sb.append(", ");
+                }
+                sb.append(PatternRegistry.getDefault().get(p).getName());
+                if ((claimed & (1L << p)) != 0) {
+                    sb.append(" (claimed)");
+                }
+            }
+            return sb.toString();
+        }
     }
 } 
\ No newline at end of file
@@ -0,0 +1,59 @@
+package com.example.housie_app;
+
+import android.app.Activity;
+import android.app.Application;
+import android.os.Bundle;
+
+import androidx.annotation.NonNull;
+
+public class HousieApplication extends Application {
+    // Longest the main thread waits for pending ticket writes on pause
+    private static final long FLUSH_TIMEOUT_MILLIS = 500;
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+
+        // Start loading the ticket book in the background so the first screen
+        // that needs it doesn't parse it on the main thread
+        TicketManager ticketManager = TicketManager.getInstance(this);
+
+        // Ticket writes are deferred, so write them out whenever a screen
+        // pauses; the process may be killed any time after that. The wait is
+        // bounded so the main thread never stalls on a large book: a snapshot
+        // that outlasts it keeps writing in the background, and the calls it
+        // covers are lost only if the process dies before it lands.
+        registerActivityLifecycleCallbacks(new ActivityLifecycleCallbacks() {
+            @Override
+            public void onActivityPaused(@NonNull Activity activity) {
+                ticketManager.flush(FLUSH_TIMEOUT_MILLIS);
+            }
+
+            @Override
+            public void onActivityStopped(@NonNull Activity activity) {
+                // Anything recorded between pause and stop
+                ticketManager.flushAsync();
+            }
+
+            @Override
+            public void onActivityCreated(@NonNull Activity activity, Bundle savedInstanceState) {
+            }
+
+            @Override
+            public void onActivityStarted(@NonNull Activity activity) {
+            }
+
+            @Override
+            public void onActivityResumed(@NonNull Activity activity) {
+            }
+
+            @Override
+            public void onActivitySaveInstanceState(@NonNull Activity activity, @NonNull Bundle outState) {
+            }
+
+            @Override
+            public void onActivityDestroyed(@NonNull Activity activity) {
+            }
+        });
+    }
+}
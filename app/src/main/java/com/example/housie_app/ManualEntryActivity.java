@@ -46,6 +46,12 @@ public class ManualEntryActivity extends AppCompatActivity {
         ticketIdTextView.setText(currentTicket.getTicketId());
         setupTicketGrid();
         
+        // Point out what needs fixing on a scanned or imported ticket straight away
+        if (currentTicket.getNumberedMask() != 0) {
+            showValidationErrors(TicketValidator.validate(currentTicket));
+        }
+        showUncertainCells(getIntent().getIntExtra("uncertain_cells", 0));
+        
         saveButton.setOnClickListener(v -> saveTicket());
     }
     
@@ -85,43 +91,91 @@ public class ManualEntryActivity extends AppCompatActivity {
     
     private void saveTicket() {
         boolean hasError = false;
+        byte[] layout = new byte[Ticket.CELLS];
         
-        // Validate and save input values
+        // Read the input values into a layout, so the ticket is only changed once it is valid
         for (int i = 0; i < Ticket.ROWS; i++) {
             for (int j = 0; j < Ticket.COLS; j++) {
                 String text = cellInputs[i][j].getText().toString().trim();
+                cellInputs[i][j].setError(null);
                 
                 if (text.isEmpty()) {
                     // Empty cell
-                    currentTicket.setNumber(i, j, null);
-                } else {
-                    try {
-                        int value = Integer.parseInt(text);
-                        if (value > 0 && value <= 90) {  // Valid range for housie
-                            currentTicket.setNumber(i, j, value);
-                        } else {
-                            hasError = true;
-                            cellInputs[i][j].setError("Invalid number");
-                        }
-                    } catch (NumberFormatException e) {
+                    continue;
+                }
+                try {
+                    int value = Integer.parseInt(text);
+                    if (value > 0 && value <= 90) {  // Valid range for housie
+                        layout[Ticket.cellIndex(i, j)] = (byte) value;
+                    } else {
                         hasError = true;
-                        cellInputs[i][j].setError("Invalid input");
+                        cellInputs[i][j].setError("Invalid number");
                     }
+                } catch (NumberFormatException e) {
+                    hasError = true;
+                    cellInputs[i][j].setError("Invalid input");
                 }
             }
         }
         
+        if (!hasError) {
+            hasError = !showValidationErrors(TicketValidator.validate(layout));
+        }
+        
         if (hasError) {
             Toast.makeText(this, "Please fix the errors before saving", Toast.LENGTH_SHORT).show();
             return;
         }
         
+        for (int i = 0; i < Ticket.ROWS; i++) {
+            for (int j = 0; j < Ticket.COLS; j++) {
+                int value = layout[Ticket.cellIndex(i, j)];
+                currentTicket.setNumber(i, j, value == 0 ? null : value);
+            }
+        }
+        
         // Save the ticket
         ticketManager.updateTicket(currentTicket);
         Toast.makeText(this, "Ticket saved", Toast.LENGTH_SHORT).show();
         finish();
     }
     
+    /**
+     * Flags the cells a scan couldn't read with certainty, unless they already show an error
+     */
+    private void showUncertainCells(int uncertainCells) {
+        for (int i = 0; i < Ticket.ROWS; i++) {
+            for (int j = 0; j < Ticket.COLS; j++) {
+                if ((uncertainCells & (1 << Ticket.cellIndex(i, j))) != 0 && cellInputs[i][j].getError() == null) {
+                    cellInputs[i][j].setError("Check this cell, the scan wasn't sure");
+                }
+            }
+        }
+    }
+    
+    /**
+     * Puts the validator's messages on the offending cells, returns true if there were none
+     */
+    private boolean showValidationErrors(TicketValidator.Result result) {
+        if (result.isValid()) {
+            return true;
+        }
+        for (int i = 0; i < Ticket.ROWS; i++) {
+            for (int j = 0; j < Ticket.COLS; j++) {
+                String error = result.getCellError(Ticket.cellIndex(i, j));
+                if (error != null) {
+                    cellInputs[i][j].setError(error);
+                }
+            }
+            // Row problems go on the row's first cell unless it already shows one
+            String rowError = result.getRowError(i);
+            if (rowError != null && cellInputs[i][0].getError() == null) {
+                cellInputs[i][0].setError(rowError);
+            }
+        }
+        return false;
+    }
+    
     @Override
     public void onBackPressed() {
         // Show confirmation dialog if changes were made
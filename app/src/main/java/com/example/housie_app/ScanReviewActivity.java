@@ -0,0 +1,82 @@
+package com.example.housie_app;
+
+import android.content.Intent;
+import android.os.Bundle;
+import android.widget.Button;
+import android.widget.TextView;
+
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lists the tickets read from one scanned sheet, marking the ones that were
+ * imported and the ones that still need fixing by hand
+ */
+public class ScanReviewActivity extends AppCompatActivity implements ScanReviewAdapter.OnReviewClickListener {
+
+    private RecyclerView recyclerView;
+    private ScanReviewAdapter adapter;
+    private TicketManager ticketManager;
+    private TextView summaryTextView;
+    private List<Ticket> scannedTickets;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_scan_review);
+
+        ticketManager = TicketManager.getInstance(this);
+
+        scannedTickets = (List<Ticket>) getIntent().getSerializableExtra("scanned_tickets");
+        if (scannedTickets == null) {
+            scannedTickets = new ArrayList<>();
+        }
+
+        recyclerView = findViewById(R.id.scannedTicketsRecyclerView);
+        summaryTextView = findViewById(R.id.summaryTextView);
+        Button nextSheetButton = findViewById(R.id.nextSheetButton);
+
+        recyclerView.setLayoutManager(new LinearLayoutManager(this));
+        adapter = new ScanReviewAdapter(this, scannedTickets, ticketManager, this);
+        recyclerView.setAdapter(adapter);
+        
+        nextSheetButton.setOnClickListener(v -> finish());
+    }
+    
+    @Override
+    protected void onResume() {
+        super.onResume();
+        // Tickets may have been fixed in the editor
+        adapter.notifyDataSetChanged();
+        updateSummary();
+    }
+    
+    private void updateSummary() {
+        int imported = 0;
+        for (Ticket ticket : scannedTickets) {
+            if (ScanReviewAdapter.isImported(ticketManager.getTicket(ticket.getTicketId()))) {
+                imported++;
+            }
+        }
+        summaryTextView.setText("Imported " + imported + " of " + scannedTickets.size() + " tickets");
+    }
+    
+    @Override
+    public void onTicketOpen(Ticket ticket) {
+        Intent intent = new Intent(this, ManualEntryActivity.class);
+        intent.putExtra("ticket_id", ticket.getTicketId());
+        startActivity(intent);
+    }
+    
+    @Override
+    public void onTicketFix(Ticket ticket) {
+        // The editor works on stored tickets, so the rejected read is stored first
+        ticketManager.addTicket(ticket);
+        onTicketOpen(ticket);
+    }
+}
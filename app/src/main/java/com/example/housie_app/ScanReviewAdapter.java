@@ -0,0 +1,109 @@
+package com.example.housie_app;
+
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.Button;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.cardview.widget.CardView;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.List;
+
+public class ScanReviewAdapter extends RecyclerView.Adapter<ScanReviewAdapter.ReviewViewHolder> {
+
+    private Context context;
+    private List<Ticket> tickets;
+    private TicketManager ticketManager;
+    private OnReviewClickListener listener;
+
+    public interface OnReviewClickListener {
+        void onTicketOpen(Ticket ticket);
+        void onTicketFix(Ticket ticket);
+    }
+
+    public ScanReviewAdapter(Context context, List<Ticket> tickets, TicketManager ticketManager, OnReviewClickListener listener) {
+        this.context = context;
+        this.tickets = tickets;
+        this.ticketManager = ticketManager;
+        this.listener = listener;
+    }
+
+    /**
+     * A scanned ticket counts as imported once its stored copy is valid
+     * @param stored the ticket manager's copy, null if it was never stored
+     */
+    static boolean isImported(Ticket stored) {
+        return stored != null && TicketValidator.validate(stored).isValid();
+    }
+
+    @NonNull
+    @Override
+    public ReviewViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(context).inflate(R.layout.item_scan_review, parent, false);
+        return new ReviewViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ReviewViewHolder holder, int position) {
+        holder.bind(tickets.get(position));
+    }
+
+    @Override
+    public int getItemCount() {
+        return tickets.size();
+    }
+
+    class ReviewViewHolder extends RecyclerView.ViewHolder {
+        CardView cardView;
+        TextView ticketIdTextView;
+        TextView statusTextView;
+        TicketGridView ticketGridView;
+        Button fixButton;
+
+        public ReviewViewHolder(@NonNull View itemView) {
+            super(itemView);
+            cardView = itemView.findViewById(R.id.ticketCardView);
+            ticketIdTextView = itemView.findViewById(R.id.ticketIdTextView);
+            statusTextView = itemView.findViewById(R.id.statusTextView);
+            ticketGridView = itemView.findViewById(R.id.ticketGridView);
+            ticketGridView.setTextSize(12);
+            fixButton = itemView.findViewById(R.id.fixTicketButton);
+        }
+
+        public void bind(final Ticket scanned) {
+            // Once stored, the manager's copy is shown so fixes made in the editor appear
+            Ticket stored = ticketManager.getTicket(scanned.getTicketId());
+            final Ticket ticket = stored != null ? stored : scanned;
+            TicketValidator.Result result = TicketValidator.validate(ticket);
+            boolean imported = isImported(stored);
+            
+            ticketIdTextView.setText(ticket.getTicketId());
+            statusTextView.setText(imported ? "Imported" : "Needs fixing: " + result.getSummary());
+            
+            ticketGridView.setTicket(ticket);
+            ticketGridView.setFlaggedCells(result.getInvalidCells());
+            
+            fixButton.setVisibility(imported ? View.GONE : View.VISIBLE);
+            fixButton.setOnClickListener(v -> {
+                if (listener == null) {
+                    return;
+                }
+                if (stored != null) {
+                    listener.onTicketOpen(ticket);
+                } else {
+                    listener.onTicketFix(ticket);
+                }
+            });
+            
+            cardView.setOnClickListener(v -> {
+                if (listener != null && stored != null) {
+                    listener.onTicketOpen(ticket);
+                }
+            });
+        }
+    }
+}
@@ -1,16 +1,20 @@
 package com.example.housie_app;
 
 import android.content.Intent;
+import android.graphics.Rect;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.util.Log;
 import android.view.View;
 import android.widget.Button;
+import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.OptIn;
 import androidx.appcompat.app.AppCompatActivity;
-import androidx.camera.core.Camera;
 import androidx.camera.core.CameraSelector;
+import androidx.camera.core.ExperimentalGetImage;
 import androidx.camera.core.ImageAnalysis;
 import androidx.camera.core.ImageCapture;
 import androidx.camera.core.ImageCaptureException;
@@ -28,22 +32,88 @@ import com.google.mlkit.vision.text.TextRecognizer;
 import com.google.mlkit.vision.text.latin.TextRecognizerOptions;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.Future;
 
+/**
+ * Scans tickets continuously: camera frames are analyzed on the camera
+ * executor and their readings voted on cell by cell. A ticket whose cells all
+ * agree across frames, and that is valid, is added without any button press,
+ * so a stack can be scanned one ticket after another. Tickets already added
+ * are recognized from a hash of their picture and, once one reading has
+ * confirmed their numbers, not read again.
+ *
+ * In sheet mode a full-quality photo of a printed sheet is split into its
+ * tickets instead, which are parsed in parallel, imported together and
+ * listed for review.
+ */
 public class ScannerActivity extends AppCompatActivity {
     private static final String TAG = "ScannerActivity";
     
+    // Frames reach the recognizer at most this often, the rest are dropped
+    private static final long MIN_FRAME_INTERVAL_MS = 200;
+    // Frames voted on before an unsettled ticket is handed over for checking
+    private static final int FRAME_BUDGET = 8;
+    // Picture hashes remembered, one per voted frame, so about eight tickets
+    private static final int HASH_CACHE_SIZE = 64;
+    
+    // Stages of the frame pipeline, timed for tuning
+    private static final int STAGE_LOCATE = 0;
+    private static final int STAGE_CROP = 1;
+    private static final int STAGE_HASH = 2;
+    private static final int STAGE_RECOGNIZE = 3;
+    private static final int STAGE_PARSE = 4;
+    private static final int STAGE_VOTE = 5;
+    private static final int TIMING_LOG_INTERVAL = 30;
+    
     private PreviewView previewView;
+    private TextView instructionsTextView;
     private Button captureButton;
+    private Button sheetModeButton;
+    private TicketGridView scanPreviewGrid;
     
     private ExecutorService cameraExecutor;
+    private ExecutorService sheetExecutor;
+    private ImageAnalysis imageAnalysis;
     private ImageCapture imageCapture;
     private TextRecognizer textRecognizer;
+    private int scannedCount;
+    
+    // Latest vote of any quality, for the manual capture button
+    private volatile Ticket latestTicket;
+    private volatile int latestUncertainCells;
+    // Ticket the camera was last found to be on by its hash and a reading, null once another is in view
+    private volatile String knownTicketId;
+    // Frames aren't analyzed while whole sheets are being photographed
+    private volatile boolean sheetMode;
+    
+    // Only touched on the camera executor
+    private boolean recognitionInFlight;
+    private long lastFrameTime;
+    private byte[] acceptedLayout;
+    private String acceptedTicketId;
+    // Ticket a hash hit was confirmed for; frames hashing to it again aren't read
+    private String confirmedTicketId;
+    // Ticket the frame being read hashed to, to confirm against the reading
+    private String hitTicketId;
+    private final ScanVoter voter = new ScanVoter(FRAME_BUDGET);
+    private final FramePreprocessor preprocessor = new FramePreprocessor();
+    private final TicketHashCache hashCache = new TicketHashCache(HASH_CACHE_SIZE);
+    // Hashes of the frames in the current vote, remembered once the ticket is added
+    private final long[] votedHashes = new long[FRAME_BUDGET];
+    private int votedHashCount;
+    private long frameHash;
+    private final StageTimer timer = new StageTimer("locate", "crop", "hash", "recognize", "parse", "vote");
+    private final byte[] consensusCells = new byte[Ticket.CELLS];
+    private final TicketLayoutParser layoutParser = new TicketLayoutParser();
+    private final byte[] scanCells = new byte[Ticket.CELLS];
+    private final float[] scanConfidence = new float[Ticket.CELLS];
+    private final SheetSegmenter sheetSegmenter = new SheetSegmenter();
     
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -51,7 +121,10 @@ public class ScannerActivity extends AppCompatActivity {
         setContentView(R.layout.activity_scanner);
         
         previewView = findViewById(R.id.previewView);
+        instructionsTextView = findViewById(R.id.instructionsTextView);
         captureButton = findViewById(R.id.captureButton);
+        sheetModeButton = findViewById(R.id.sheetModeButton);
+        scanPreviewGrid = findViewById(R.id.scanPreviewGrid);
         
         // Initialize the ML Kit text recognizer
         textRecognizer = TextRecognition.getClient(TextRecognizerOptions.DEFAULT_OPTIONS);
@@ -59,10 +132,37 @@ public class ScannerActivity extends AppCompatActivity {
         // Set up the camera executor
         cameraExecutor = Executors.newSingleThreadExecutor();
         
+        // Tickets of a sheet are parsed side by side
+        sheetExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        
+        // Per-stage frame timings, logged now and then
+        timer.setListener(t -> {
+            if (t.getFrames() % TIMING_LOG_INTERVAL == 0) {
+                Log.d(TAG, "Frame timings: " + t.getSummary());
+            }
+        });
+        
         // Start the camera
         startCamera();
         
-        captureButton.setOnClickListener(v -> captureImage());
+        captureButton.setOnClickListener(v -> {
+            if (sheetMode) {
+                captureSheet();
+            } else {
+                captureLatestRead();
+            }
+        });
+        sheetModeButton.setOnClickListener(v -> setSheetMode(!sheetMode));
+    }
+    
+    private void setSheetMode(boolean enabled) {
+        sheetMode = enabled;
+        cameraExecutor.execute(this::resetVote);
+        scanPreviewGrid.setVisibility(View.GONE);
+        sheetModeButton.setText(enabled ? "Single" : "Sheet");
+        instructionsTextView.setText(enabled 
+                ? "Fit the whole sheet in view and press Capture" 
+                : "Hold your Housie ticket steady in view, it is added automatically");
     }
     
     private void startCamera() {
@@ -77,9 +177,16 @@ public class ScannerActivity extends AppCompatActivity {
                 Preview preview = new Preview.Builder().build();
                 preview.setSurfaceProvider(previewView.getSurfaceProvider());
                 
-                // Set up the image capture use case
+                // Analyze frames off the main thread; while one is being read,
+                // newer frames replace older ones instead of queueing up
+                imageAnalysis = new ImageAnalysis.Builder()
+                        .setBackpressureStrategy(ImageAnalysis.STRATEGY_KEEP_ONLY_LATEST)
+                        .build();
+                imageAnalysis.setAnalyzer(cameraExecutor, this::analyzeFrame);
+                
+                // Full-quality photos for whole sheets
                 imageCapture = new ImageCapture.Builder()
-                        .setCaptureMode(ImageCapture.CAPTURE_MODE_MINIMIZE_LATENCY)
+                        .setCaptureMode(ImageCapture.CAPTURE_MODE_MAXIMIZE_QUALITY)
                         .build();
                 
                 // Select the back camera
@@ -91,8 +198,8 @@ public class ScannerActivity extends AppCompatActivity {
                 cameraProvider.unbindAll();
                 
                 // Bind use cases to camera
-                Camera camera = cameraProvider.bindToLifecycle(
-                        this, cameraSelector, preview, imageCapture);
+                cameraProvider.bindToLifecycle(
+                        this, cameraSelector, preview, imageAnalysis, imageCapture);
                 
             } catch (ExecutionException | InterruptedException e) {
                 Log.e(TAG, "Error starting camera: " + e.getMessage());
@@ -100,114 +207,365 @@ public class ScannerActivity extends AppCompatActivity {
         }, ContextCompat.getMainExecutor(this));
     }
     
-    private void captureImage() {
+    private void analyzeFrame(@NonNull ImageProxy image) {
+        // One recognition at a time, and not more often than the throttle allows
+        long now = SystemClock.elapsedRealtime();
+        if (sheetMode || recognitionInFlight || now - lastFrameTime < MIN_FRAME_INTERVAL_MS) {
+            image.close();
+            return;
+        }
+        recognitionInFlight = true;
+        lastFrameTime = now;
+        
+        // Crop to the ticket and shrink it; the frame goes back to the camera straight after
+        timer.start();
+        ImageProxy.PlaneProxy luma = image.getPlanes()[0];
+        preprocessor.locate(luma.getBuffer(), image.getWidth(), image.getHeight(), luma.getRowStride());
+        timer.lap(STAGE_LOCATE);
+        preprocessor.crop(luma.getBuffer(), luma.getRowStride());
+        int rotation = image.getImageInfo().getRotationDegrees();
+        image.close();
+        timer.lap(STAGE_CROP);
+        
+        // A ticket that was already added is known from its hash, no need to read it again
+        long hash = preprocessor.getHash();
+        String hitId = hashCache.find(hash);
+        timer.lap(STAGE_HASH);
+        if (hitId != null && hitId.equals(confirmedTicketId)) {
+            timer.finish();
+            recognitionInFlight = false;
+            runOnUiThread(() -> showKnownTicket(hitId));
+            return;
+        }
+        // A new hit is only trusted once the frame's reading agrees with the ticket's numbers
+        confirmedTicketId = null;
+        knownTicketId = null;
+        hitTicketId = hitId;
+        frameHash = hash;
+        
+        InputImage inputImage = InputImage.fromByteBuffer(preprocessor.getNv21(), 
+                preprocessor.getWidth(), preprocessor.getHeight(), rotation, InputImage.IMAGE_FORMAT_NV21);
+        
+        // The preprocessor's buffer is reused, so the next frame waits for this one
+        textRecognizer.process(inputImage)
+                .addOnSuccessListener(cameraExecutor, this::onTextRecognized)
+                .addOnFailureListener(cameraExecutor, e -> Log.e(TAG, "Text recognition failed: " + e.getMessage()))
+                .addOnCompleteListener(cameraExecutor, task -> recognitionInFlight = false);
+    }
+    
+    private void onTextRecognized(Text text) {
+        timer.lap(STAGE_RECOGNIZE);
+        boolean found = parseTicketFromText(text);
+        timer.lap(STAGE_PARSE);
+        String hitId = hitTicketId;
+        hitTicketId = null;
+        
+        // A blurred or partial frame doesn't vote
+        if (!found) {
+            timer.finish();
+            return;
+        }
+        if (hitId != null && hashCache.confirm(hitId, scanCells)) {
+            confirmedTicketId = hitId;
+            knownTicketId = hitId;
+            resetVote();
+            timer.finish();
+            runOnUiThread(() -> showKnownTicket(hitId));
+            return;
+        }
+        if (voter.addFrame(scanCells, scanConfidence)) {
+            votedHashCount = 0;
+        }
+        if (frameHash != TicketHashCache.NO_HASH && votedHashCount < votedHashes.length) {
+            votedHashes[votedHashCount++] = frameHash;
+        }
+        voter.getConsensus(consensusCells);
+        timer.lap(STAGE_VOTE);
+        timer.finish();
+        
+        // The ticket that was just added is still in view
+        if (Arrays.equals(consensusCells, acceptedLayout)) {
+            rememberVotedHashes(acceptedTicketId, acceptedLayout);
+            resetVote();
+            return;
+        }
+        // An earlier ticket is back in view but its hash was missed
+        String addedId = hashCache.findTicket(consensusCells);
+        if (addedId != null) {
+            rememberVotedHashes(addedId, consensusCells);
+            resetVote();
+            runOnUiThread(() -> showKnownTicket(addedId));
+            return;
+        }
+        
+        Ticket ticket = new Ticket("TICKET-SCAN-" + System.currentTimeMillis(), consensusCells, 0);
+        int uncertainCells = voter.getUncertainCells();
+        latestTicket = ticket;
+        latestUncertainCells = uncertainCells;
+        
+        if (uncertainCells == 0 && TicketValidator.isValid(consensusCells)) {
+            // Every cell agreed across frames
+            acceptTicket(ticket);
+            runOnUiThread(() -> addScannedTicket(ticket));
+        } else if (voter.isBudgetUsed()) {
+            // Still unsure after the budget, let the user check the doubtful cells
+            acceptTicket(ticket);
+            runOnUiThread(() -> reviewTicket(ticket, uncertainCells));
+        } else {
+            runOnUiThread(() -> showScanProgress(ticket, uncertainCells));
+        }
+    }
+    
+    // Runs on the camera thread; the ticket still in view is not added again
+    private void acceptTicket(Ticket ticket) {
+        acceptedLayout = ticket.copyCells();
+        acceptedTicketId = ticket.getTicketId();
+        rememberVotedHashes(acceptedTicketId, acceptedLayout);
+        resetVote();
+    }
+    
+    private void resetVote() {
+        voter.reset();
+        votedHashCount = 0;
+    }
+    
+    // Every frame of the vote saw the ticket from a slightly different angle
+    private void rememberVotedHashes(String ticketId, byte[] cells) {
+        for (int i = 0; i < votedHashCount; i++) {
+            hashCache.put(votedHashes[i], ticketId, cells);
+        }
+    }
+    
+    private void showKnownTicket(String ticketId) {
+        if (isDestroyed()) {
+            return;
+        }
+        Ticket ticket = TicketManager.getInstance(this).getTicket(ticketId);
+        if (ticket == null) {
+            // Deleted since it was scanned, so it may be read again
+            cameraExecutor.execute(() -> hashCache.remove(ticketId));
+            return;
+        }
+        scanPreviewGrid.setTicket(ticket);
+        scanPreviewGrid.setFlaggedCells(0);
+        scanPreviewGrid.setVisibility(View.VISIBLE);
+        instructionsTextView.setText("Already added " + ticketId + ", show the next one or press Capture to read it again");
+    }
+    
+    private void showScanProgress(Ticket ticket, int uncertainCells) {
+        if (isDestroyed()) {
+            return;
+        }
+        scanPreviewGrid.setTicket(ticket);
+        scanPreviewGrid.setFlaggedCells(uncertainCells);
+        scanPreviewGrid.setVisibility(View.VISIBLE);
+        int count = Integer.bitCount(uncertainCells);
+        instructionsTextView.setText("Reading ticket, hold steady... " + count 
+                + (count == 1 ? " cell" : " cells") + " uncertain");
+    }
+    
+    private void addScannedTicket(Ticket ticket) {
+        if (isDestroyed()) {
+            return;
+        }
+        saveScannedTicket(ticket);
+        Toast.makeText(this, "Added " + ticket.getTicketId(), Toast.LENGTH_SHORT).show();
+    }
+    
+    private void saveScannedTicket(Ticket ticket) {
+        TicketManager.getInstance(this).addTicket(ticket);
+        scannedCount++;
+        latestTicket = null;
+        scanPreviewGrid.setVisibility(View.GONE);
+        instructionsTextView.setText("Added " + scannedCount + (scannedCount == 1 ? " ticket" : " tickets") 
+                + ", show the next one");
+    }
+    
+    private void captureLatestRead() {
+        // The ticket in view was taken for one already added, e.g. one that
+        // was edited since; its hashes are dropped and the ticket read as usual
+        String knownId = knownTicketId;
+        if (knownId != null) {
+            knownTicketId = null;
+            cameraExecutor.execute(() -> {
+                confirmedTicketId = null;
+                hashCache.remove(knownId);
+            });
+            scanPreviewGrid.setVisibility(View.GONE);
+            instructionsTextView.setText("Reading the ticket again, hold steady");
+            return;
+        }
+        
+        // Fallback for tickets that never settle: keep the best read and fix it by hand
+        Ticket ticket = latestTicket;
+        if (ticket == null) {
+            Toast.makeText(this, "Could not detect a valid ticket. Try again or use manual entry.", 
+                    Toast.LENGTH_LONG).show();
+            return;
+        }
+        cameraExecutor.execute(() -> acceptTicket(ticket));
+        reviewTicket(ticket, latestUncertainCells);
+    }
+    
+    private void reviewTicket(Ticket ticket, int uncertainCells) {
+        if (isDestroyed() || isFinishing()) {
+            return;
+        }
+        
+        // Save the ticket and open it in the manual entry activity for verification
+        saveScannedTicket(ticket);
+        
+        // Manual entry marks the cells that need fixing
+        TicketValidator.Result result = TicketValidator.validate(ticket);
+        if (!result.isValid() || uncertainCells != 0) {
+            Toast.makeText(this, "Some numbers may be misread, please check the marked cells", 
+                    Toast.LENGTH_LONG).show();
+        }
+        
+        Intent intent = new Intent(this, ManualEntryActivity.class);
+        intent.putExtra("ticket_id", ticket.getTicketId());
+        intent.putExtra("uncertain_cells", uncertainCells);
+        // Scanning carries on with the next ticket after the check
+        startActivity(intent);
+    }
+    
+    private void captureSheet() {
         if (imageCapture == null) {
             Toast.makeText(this, "Camera not initialized", Toast.LENGTH_SHORT).show();
             return;
         }
         
-        // Show a toast to indicate capturing
-        Toast.makeText(this, "Capturing image...", Toast.LENGTH_SHORT).show();
+        captureButton.setEnabled(false);
+        Toast.makeText(this, "Reading sheet...", Toast.LENGTH_SHORT).show();
         
-        // Take a picture
-        imageCapture.takePicture(
-                ContextCompat.getMainExecutor(this),
-                new ImageCapture.OnImageCapturedCallback() {
-                    @Override
-                    public void onCaptureSuccess(@NonNull ImageProxy image) {
-                        // Process the captured image
-                        processImage(image);
-                    }
-                    
-                    @Override
-                    public void onError(@NonNull ImageCaptureException exception) {
-                        Log.e(TAG, "Image capture failed: " + exception.getMessage());
-                        Toast.makeText(ScannerActivity.this, 
-                                "Failed to capture image", Toast.LENGTH_SHORT).show();
-                    }
-                });
+        imageCapture.takePicture(cameraExecutor, new ImageCapture.OnImageCapturedCallback() {
+            @Override
+            public void onCaptureSuccess(@NonNull ImageProxy image) {
+                recognizeSheet(image);
+            }
+            
+            @Override
+            public void onError(@NonNull ImageCaptureException exception) {
+                Log.e(TAG, "Image capture failed: " + exception.getMessage());
+                runOnUiThread(() -> onSheetFailed("Failed to capture image"));
+            }
+        });
     }
     
-    private void processImage(ImageProxy image) {
+    @OptIn(markerClass = ExperimentalGetImage.class)
+    private void recognizeSheet(ImageProxy image) {
         InputImage inputImage = InputImage.fromMediaImage(
                 image.getImage(), image.getImageInfo().getRotationDegrees());
         
         textRecognizer.process(inputImage)
-                .addOnSuccessListener(text -> {
-                    Ticket ticket = parseTicketFromText(text);
-                    if (ticket != null) {
-                        // Save the ticket and open it in the manual entry activity for verification
-                        TicketManager.getInstance(this).addTicket(ticket);
-                        
-                        Intent intent = new Intent(this, ManualEntryActivity.class);
-                        intent.putExtra("ticket_id", ticket.getTicketId());
-                        startActivity(intent);
-                        finish();
-                    } else {
-                        Toast.makeText(this, "Could not detect a valid ticket. Try again or use manual entry.", 
-                                Toast.LENGTH_LONG).show();
-                    }
-                    image.close();
+                .addOnSuccessListener(cameraExecutor, text -> {
+                    List<Ticket> tickets = parseSheet(text);
+                    runOnUiThread(() -> importSheet(tickets));
                 })
-                .addOnFailureListener(e -> {
+                .addOnFailureListener(cameraExecutor, e -> {
                     Log.e(TAG, "Text recognition failed: " + e.getMessage());
-                    Toast.makeText(this, "Text recognition failed", Toast.LENGTH_SHORT).show();
-                    image.close();
-                });
+                    runOnUiThread(() -> onSheetFailed("Text recognition failed"));
+                })
+                .addOnCompleteListener(cameraExecutor, task -> image.close());
     }
     
-    private Ticket parseTicketFromText(Text text) {
-        // Create a new ticket
-        Ticket ticket = new Ticket("TICKET-SCAN-" + System.currentTimeMillis());
-        
-        // Regular expression to match numbers (1-90)
-        Pattern pattern = Pattern.compile("\\b([1-9]|[1-8][0-9]|90)\\b");
-        
-        // Process each text block
-        List<Integer> numbers = new ArrayList<>();
+    // Splits the sheet into tickets and parses them on the worker pool, one parser per ticket
+    private List<Ticket> parseSheet(Text text) {
+        sheetSegmenter.reset();
         for (Text.TextBlock block : text.getTextBlocks()) {
             for (Text.Line line : block.getLines()) {
-                String lineText = line.getText();
-                Matcher matcher = pattern.matcher(lineText);
-                
-                while (matcher.find()) {
-                    int number = Integer.parseInt(matcher.group());
-                    numbers.add(number);
+                for (Text.Element element : line.getElements()) {
+                    Rect box = element.getBoundingBox();
+                    if (box != null) {
+                        sheetSegmenter.addElement(element.getText(), 
+                                box.left, box.top, box.right, box.bottom, element.getConfidence());
+                    }
                 }
             }
         }
+        int count = sheetSegmenter.segment();
         
-        // If we have at least some numbers, consider it a valid ticket
-        if (numbers.size() >= 5) {  // A housie ticket row has 5 numbers
-            // Place numbers in the ticket grid - very simple algorithm for now
-            // In a real app, you would need a more sophisticated algorithm to detect the exact layout
-            int currentRow = 0;
-            int currentCol = 0;
-            
-            for (Integer number : numbers) {
-                // Skip if we've filled the ticket
-                if (currentRow >= Ticket.ROWS) break;
-                
-                // Place the number
-                ticket.setNumber(currentRow, currentCol, number);
-                
-                // Move to the next position
-                currentCol++;
-                if (currentCol >= Ticket.COLS) {
-                    currentCol = 0;
-                    currentRow++;
+        String idPrefix = "TICKET-SCAN-" + System.currentTimeMillis() + "-";
+        List<Callable<Ticket>> tasks = new ArrayList<>(count);
+        for (int t = 0; t < count; t++) {
+            int index = t;
+            tasks.add(() -> {
+                TicketLayoutParser parser = new TicketLayoutParser();
+                byte[] cells = new byte[Ticket.CELLS];
+                float[] confidence = new float[Ticket.CELLS];
+                sheetSegmenter.feed(index, parser);
+                return parser.parse(cells, confidence) ? new Ticket(idPrefix + (index + 1), cells, 0) : null;
+            });
+        }
+        
+        List<Ticket> tickets = new ArrayList<>(count);
+        try {
+            for (Future<Ticket> future : sheetExecutor.invokeAll(tasks)) {
+                Ticket ticket = future.get();
+                if (ticket != null) {
+                    tickets.add(ticket);
                 }
             }
-            
-            return ticket;
+        } catch (InterruptedException | ExecutionException e) {
+            Log.e(TAG, "Error parsing sheet: " + e.getMessage());
         }
+        return tickets;
+    }
+    
+    private void importSheet(List<Ticket> tickets) {
+        if (isDestroyed()) {
+            return;
+        }
+        captureButton.setEnabled(true);
+        if (tickets.isEmpty()) {
+            Toast.makeText(this, "Could not find any tickets on the sheet. Try again.", Toast.LENGTH_LONG).show();
+            return;
+        }
+        
+        // One insert and one save for the whole sheet; tickets that fail validation are left for review
+        List<TicketValidator.Result> rejected = TicketManager.getInstance(this).addTickets(tickets);
+        scannedCount += tickets.size() - rejected.size();
         
-        return null;  // Could not extract a valid ticket
+        Intent intent = new Intent(this, ScanReviewActivity.class);
+        intent.putExtra("scanned_tickets", new ArrayList<>(tickets));
+        startActivity(intent);
+    }
+    
+    private void onSheetFailed(String message) {
+        if (isDestroyed()) {
+            return;
+        }
+        captureButton.setEnabled(true);
+        Toast.makeText(this, message, Toast.LENGTH_SHORT).show();
+    }
+    
+    // Parses a frame into scanCells and scanConfidence, false if no ticket was found
+    private boolean parseTicketFromText(Text text) {
+        // Feed every recognized word with its position to the layout parser
+        layoutParser.reset();
+        for (Text.TextBlock block : text.getTextBlocks()) {
+            for (Text.Line line : block.getLines()) {
+                for (Text.Element element : line.getElements()) {
+                    Rect box = element.getBoundingBox();
+                    if (box != null) {
+                        layoutParser.addElement(element.getText(), 
+                                box.left, box.top, box.right, box.bottom, element.getConfidence());
+                    }
+                }
+            }
+        }
+        
+        return layoutParser.parse(scanCells, scanConfidence);
     }
     
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        if (imageAnalysis != null) {
+            imageAnalysis.clearAnalyzer();
+        }
         cameraExecutor.shutdown();
+        sheetExecutor.shutdown();
+        textRecognizer.close();
     }
 } 
\ No newline at end of file
@@ -5,7 +5,6 @@ import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.Button;
-import android.widget.GridLayout;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
@@ -22,7 +21,7 @@ public class TicketAdapter extends RecyclerView.Adapter<TicketAdapter.TicketView
 
     public interface OnTicketClickListener {
         void onTicketClick(Ticket ticket);
-        void onTicketDelete(Ticket ticket);
+        void onTicketDelete(Ticket ticket, int position);
     }
 
     public TicketAdapter(Context context, List<Ticket> tickets, OnTicketClickListener listener) {
@@ -52,54 +51,22 @@ public class TicketAdapter extends RecyclerView.Adapter<TicketAdapter.TicketView
     class TicketViewHolder extends RecyclerView.ViewHolder {
         CardView cardView;
         TextView ticketIdTextView;
-        GridLayout ticketGridLayout;
+        TicketGridView ticketGridView;
         Button deleteButton;
 
         public TicketViewHolder(@NonNull View itemView) {
             super(itemView);
             cardView = itemView.findViewById(R.id.ticketCardView);
             ticketIdTextView = itemView.findViewById(R.id.ticketIdTextView);
-            ticketGridLayout = itemView.findViewById(R.id.ticketGridLayout);
+            ticketGridView = itemView.findViewById(R.id.ticketGridView);
+            ticketGridView.setTextSize(12);
             deleteButton = itemView.findViewById(R.id.deleteTicketButton);
         }
 
         public void bind(final Ticket ticket) {
             ticketIdTextView.setText(ticket.getTicketId());
             
-            // Clear previous grid
-            ticketGridLayout.removeAllViews();
-            
-            // Create a preview of the ticket grid
-            for (int i = 0; i < Ticket.ROWS; i++) {
-                for (int j = 0; j < Ticket.COLS; j++) {
-                    Integer number = ticket.getNumber(i, j);
-                    
-                    TextView cell = new TextView(context);
-                    cell.setTextSize(12);
-                    cell.setPadding(8, 8, 8, 8);
-                    
-                    if (number != null) {
-                        cell.setText(String.valueOf(number));
-                        if (ticket.isMarked(i, j)) {
-                            cell.setBackgroundResource(R.drawable.cell_marked_background);
-                        } else {
-                            cell.setBackgroundResource(R.drawable.cell_background);
-                        }
-                    } else {
-                        cell.setText("");
-                        cell.setBackgroundResource(R.drawable.cell_empty_background);
-                    }
-                    
-                    GridLayout.LayoutParams params = new GridLayout.LayoutParams();
-                    params.width = GridLayout.LayoutParams.WRAP_CONTENT;
-                    params.height = GridLayout.LayoutParams.WRAP_CONTENT;
-                    params.rowSpec = GridLayout.spec(i);
-                    params.columnSpec = GridLayout.spec(j);
-                    params.setMargins(2, 2, 2, 2);
-                    
-                    ticketGridLayout.addView(cell, params);
-                }
-            }
+            ticketGridView.setTicket(ticket);
             
             cardView.setOnClickListener(v -> {
                 if (listener != null) {
@@ -108,8 +75,9 @@ public class TicketAdapter extends RecyclerView.Adapter<TicketAdapter.TicketView
             });
             
             deleteButton.setOnClickListener(v -> {
-                if (listener != null) {
-                    listener.onTicketDelete(ticket);
+                int position = getBindingAdapterPosition();
+                if (listener != null && position != RecyclerView.NO_POSITION) {
+                    listener.onTicketDelete(ticket, position);
                 }
             });
         }
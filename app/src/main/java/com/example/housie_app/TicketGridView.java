@@ -0,0 +1,196 @@
+package com.example.housie_app;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.graphics.Typeface;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+import android.view.View;
+
+/**
+ * Draws a 3x9 ticket straight onto the canvas: one view per ticket instead of
+ * 27 TextViews, and nothing is allocated while drawing so binding and
+ * scrolling stay cheap.
+ */
+public class TicketGridView extends View {
+    // Labels for 1-90, shared by every grid
+    private static final String[] LABELS = new String[91];
+
+    static {
+        for (int number = 1; number < LABELS.length; number++) {
+            LABELS[number] = String.valueOf(number);
+        }
+    }
+
+    private final Paint emptyFill = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint cellFill = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint markedFill = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint winningFill = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint cellStroke = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint markedStroke = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint flaggedStroke = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint winningTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint.FontMetrics fontMetrics = new Paint.FontMetrics();
+    private final RectF cellRect = new RectF();
+
+    private final float cornerRadius;
+    private final float cellMargin;
+    private final float cellPadding;
+
+    private final byte[] cells = new byte[Ticket.CELLS];
+    private int markedMask;
+    private int flaggedMask;
+    private boolean highlightMarks;
+
+    public TicketGridView(Context context) {
+        this(context, null);
+    }
+
+    public TicketGridView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        float density = getResources().getDisplayMetrics().density;
+        cornerRadius = 4 * density;
+        cellMargin = 2 * density;
+        cellPadding = 8 * density;
+
+        // Same colours as the cell_*_background drawables
+        emptyFill.setColor(Color.parseColor("#EEEEEE"));
+        cellFill.setColor(Color.WHITE);
+        markedFill.setColor(Color.parseColor("#B3E5FC"));
+        winningFill.setColor(Color.rgb(105, 240, 174)); // Bright green
+        cellStroke.setStyle(Paint.Style.STROKE);
+        cellStroke.setStrokeWidth(density);
+        cellStroke.setColor(Color.parseColor("#CCCCCC"));
+        markedStroke.setStyle(Paint.Style.STROKE);
+        markedStroke.setStrokeWidth(density);
+        markedStroke.setColor(Color.parseColor("#0288D1"));
+        flaggedStroke.setStyle(Paint.Style.STROKE);
+        flaggedStroke.setStrokeWidth(2 * density);
+        flaggedStroke.setColor(Color.parseColor("#FF6F00"));
+
+        textPaint.setColor(Color.BLACK);
+        textPaint.setTextAlign(Paint.Align.CENTER);
+        winningTextPaint.setColor(Color.BLACK);
+        winningTextPaint.setTextAlign(Paint.Align.CENTER);
+        winningTextPaint.setTypeface(Typeface.DEFAULT_BOLD);
+        setTextSize(16);
+    }
+
+    /**
+     * Sets the number size in sp; marked numbers on a winning ticket are drawn
+     * two sp larger
+     */
+    public void setTextSize(float sp) {
+        textPaint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, sp,
+                getResources().getDisplayMetrics()));
+        winningTextPaint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, sp + 2,
+                getResources().getDisplayMetrics()));
+        requestLayout();
+        invalidate();
+    }
+
+    /**
+     * Shows the ticket's numbers and marks
+     */
+    public void setTicket(Ticket ticket) {
+        for (int cell = 0; cell < Ticket.CELLS; cell++) {
+            cells[cell] = ticket.getCell(cell);
+        }
+        markedMask = ticket.getMarkedMask();
+        invalidate();
+    }
+
+    /**
+     * Marks the given cells without rebinding, for when a called number lands
+     * on the ticket
+     */
+    public void markCells(int cells) {
+        if ((markedMask | cells) != markedMask) {
+            markedMask |= cells;
+            invalidate();
+        }
+    }
+
+    /**
+     * Draws marked numbers in the bolder winning style
+     */
+    public void setHighlightMarks(boolean highlightMarks) {
+        if (this.highlightMarks != highlightMarks) {
+            this.highlightMarks = highlightMarks;
+            invalidate();
+        }
+    }
+
+    /**
+     * Outlines the given cells, empty or not, e.g. numbers a scan isn't sure of
+     */
+    public void setFlaggedCells(int cells) {
+        if (flaggedMask != cells) {
+            flaggedMask = cells;
+            invalidate();
+        }
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = MeasureSpec.getSize(widthMeasureSpec);
+        winningTextPaint.getFontMetrics(fontMetrics);
+        float cellHeight = fontMetrics.descent - fontMetrics.ascent + 2 * cellPadding + 2 * cellMargin;
+        int height = (int) Math.ceil(Ticket.ROWS * cellHeight) + getPaddingTop() + getPaddingBottom();
+        setMeasuredDimension(width, resolveSize(height, heightMeasureSpec));
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        float left = getPaddingLeft();
+        float top = getPaddingTop();
+        float cellWidth = (getWidth() - left - getPaddingRight()) / Ticket.COLS;
+        float cellHeight = (getHeight() - top - getPaddingBottom()) / Ticket.ROWS;
+        float inset = cellStroke.getStrokeWidth() / 2;
+
+        for (int i = 0; i < Ticket.ROWS; i++) {
+            for (int j = 0; j < Ticket.COLS; j++) {
+                int cell = Ticket.cellIndex(i, j);
+                int number = cells[cell];
+                // Anything without a label, e.g. an unchecked scan reading, draws as empty
+                boolean empty = number <= 0 || number >= LABELS.length;
+                boolean marked = !empty && (markedMask & (1 << cell)) != 0;
+
+                cellRect.set(left + j * cellWidth + cellMargin + inset,
+                        top + i * cellHeight + cellMargin + inset,
+                        left + (j + 1) * cellWidth - cellMargin - inset,
+                        top + (i + 1) * cellHeight - cellMargin - inset);
+
+                boolean flagged = (flaggedMask & (1 << cell)) != 0;
+                if (empty) {
+                    canvas.drawRoundRect(cellRect, cornerRadius, cornerRadius, emptyFill);
+                    canvas.drawRoundRect(cellRect, cornerRadius, cornerRadius, flagged ? flaggedStroke : cellStroke);
+                    continue;
+                }
+
+                Paint text = textPaint;
+                if (marked && highlightMarks) {
+                    canvas.drawRect(cellRect, winningFill);
+                    text = winningTextPaint;
+                } else if (marked) {
+                    canvas.drawRoundRect(cellRect, cornerRadius, cornerRadius, markedFill);
+                    canvas.drawRoundRect(cellRect, cornerRadius, cornerRadius, markedStroke);
+                } else {
+                    canvas.drawRoundRect(cellRect, cornerRadius, cornerRadius, cellFill);
+                    canvas.drawRoundRect(cellRect, cornerRadius, cornerRadius, cellStroke);
+                }
+                if (flagged) {
+                    canvas.drawRoundRect(cellRect, cornerRadius, cornerRadius, flaggedStroke);
+                }
+
+                // Centre the number vertically on its baseline
+                float baseline = cellRect.centerY() - (text.descent() + text.ascent()) / 2;
+                canvas.drawText(LABELS[number], cellRect.centerX(), baseline, text);
+            }
+        }
+    }
+}
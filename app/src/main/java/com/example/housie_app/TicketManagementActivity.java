@@ -5,12 +5,15 @@ import android.os.Bundle;
 import android.view.View;
 import android.widget.Button;
 import android.widget.TextView;
+import android.widget.Toast;
 
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import java.util.List;
+import java.util.UUID;
 
 public class TicketManagementActivity extends AppCompatActivity implements TicketAdapter.OnTicketClickListener {
 
@@ -19,6 +22,7 @@ public class TicketManagementActivity extends AppCompatActivity implements Ticke
     private TicketManager ticketManager;
     private TextView emptyView;
     private Button addTicketButton;
+    private Button generateStripButton;
     private Button startGameButton;
 
     @Override
@@ -31,6 +35,7 @@ public class TicketManagementActivity extends AppCompatActivity implements Ticke
         recyclerView = findViewById(R.id.ticketsRecyclerView);
         emptyView = findViewById(R.id.emptyTicketsView);
         addTicketButton = findViewById(R.id.addTicketButton);
+        generateStripButton = findViewById(R.id.generateStripButton);
         startGameButton = findViewById(R.id.startGameButton);
 
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
@@ -40,18 +45,81 @@ public class TicketManagementActivity extends AppCompatActivity implements Ticke
             startActivity(intent);
         });
         
+        generateStripButton.setOnClickListener(v -> generateDemoStrip());
+        
         startGameButton.setOnClickListener(v -> {
             if (ticketManager.getTickets().size() > 0) {
-                Intent intent = new Intent(TicketManagementActivity.this, GameActivity.class);
-                startActivity(intent);
+                showGameConfigDialog();
             }
         });
     }
+    
+    private void generateDemoStrip() {
+        // A full strip of six valid tickets covering 1-90, for demos and testing
+        List<Ticket> strip = new StripGenerator(System.nanoTime()).nextStrip();
+        for (Ticket ticket : strip) {
+            ticket.setTicketId("TICKET-" + UUID.randomUUID().toString().substring(0, 8));
+        }
+        ticketManager.addTickets(strip);
+        Toast.makeText(this, "Added a strip of " + strip.size() + " tickets", Toast.LENGTH_SHORT).show();
+        updateTicketsList();
+    }
+    
+    private void showGameConfigDialog() {
+        PatternRegistry registry = PatternRegistry.getDefault();
+        long enabledPatterns = GameConfig.loadEnabledPatterns(this);
+        
+        String[] names = new String[registry.size()];
+        boolean[] checked = new boolean[registry.size()];
+        for (int i = 0; i < names.length; i++) {
+            WinningPattern pattern = registry.get(i);
+            names[i] = pattern.getEmoji() + " " + pattern.getName();
+            checked[i] = GameConfig.isEnabled(enabledPatterns, i);
+        }
+        
+        new AlertDialog.Builder(this)
+                .setTitle("Prizes in Play")
+                .setMultiChoiceItems(names, checked, (dialog, which, isChecked) -> checked[which] = isChecked)
+                .setPositiveButton("Start", (dialog, which) -> {
+                    long selected = 0;
+                    for (int i = 0; i < checked.length; i++) {
+                        if (checked[i]) {
+                            selected |= 1L << i;
+                        }
+                    }
+                    
+                    if (selected == 0) {
+                        Toast.makeText(this, "Select at least one prize", Toast.LENGTH_SHORT).show();
+                        return;
+                    }
+                    
+                    GameConfig.saveEnabledPatterns(this, selected);
+                    Intent intent = new Intent(TicketManagementActivity.this, GameActivity.class);
+                    intent.putExtra(GameConfig.EXTRA_ENABLED_PATTERNS, selected);
+                    startActivity(intent);
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
 
     @Override
     protected void onResume() {
         super.onResume();
-        updateTicketsList();
+        
+        if (ticketManager.isReady()) {
+            updateTicketsList();
+        } else {
+            // Show a placeholder until the book has loaded in the background
+            recyclerView.setVisibility(View.GONE);
+            emptyView.setVisibility(View.VISIBLE);
+            emptyView.setText("Loading tickets...");
+            startGameButton.setEnabled(false);
+            ticketManager.whenReady(() -> {
+                if (!isDestroyed()) {
+                    updateTicketsList();
+                }
+            });
+        }
     }
 
     private void updateTicketsList() {
@@ -60,6 +128,7 @@ public class TicketManagementActivity extends AppCompatActivity implements Ticke
         if (tickets.isEmpty()) {
             recyclerView.setVisibility(View.GONE);
             emptyView.setVisibility(View.VISIBLE);
+            emptyView.setText("No tickets added yet. Add a ticket to get started!");
             startGameButton.setEnabled(false);
         } else {
             recyclerView.setVisibility(View.VISIBLE);
@@ -80,8 +149,18 @@ public class TicketManagementActivity extends AppCompatActivity implements Ticke
     }
 
     @Override
-    public void onTicketDelete(Ticket ticket) {
+    public void onTicketDelete(Ticket ticket, int position) {
+        // The adapter shows the manager's live list, which has already lost the
+        // ticket and moved its last ticket into the freed position
         ticketManager.deleteTicket(ticket.getTicketId());
-        updateTicketsList();
+        int size = ticketManager.getTickets().size();
+        if (size == 0) {
+            updateTicketsList();
+        } else {
+            adapter.notifyItemRemoved(position);
+            if (position < size) {
+                adapter.notifyItemMoved(size - 1, position);
+            }
+        }
     }
 } 
\ No newline at end of file
@@ -2,35 +2,114 @@ package com.example.housie_app;
 
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 
-import java.lang.reflect.Type;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Manages Housie tickets persistence and operations
+ *
+ * The book is persisted as an immutable snapshot plus an append-only journal
+ * of events since that snapshot. Every mutation appends a few bytes to the
+ * journal, which is folded into a fresh snapshot once it grows long enough.
+ * Writes are behind: mutations only buffer their journal record and mark the
+ * store dirty, and a single background writer coalesces everything within the
+ * write window into one write. Call flush() or flushAsync() to force pending
+ * writes to disk.
+ *
+ * Loading runs on a background thread, started from HousieApplication.
+ * Screens can wait for it with whenReady(); any other access blocks only
+ * while the book has not finished loading.
  */
 public class TicketManager {
     private static final String TAG = "TicketManager";
     private static final String PREF_NAME = "housie_tickets";
     private static final String TICKETS_KEY = "tickets";
+    private static final String SNAPSHOT_FILE = "tickets_snapshot.json";
+    private static final String JOURNAL_FILE = "tickets_journal.bin";
+    private static final int COMPACT_THRESHOLD = 512;
+    private static final long DEFAULT_WRITE_DELAY_MILLIS = 250;
+    // Back-off before a failed snapshot is tried again
+    private static final long SNAPSHOT_RETRY_MILLIS = 5000;
     
     private static TicketManager instance;
-    private List<Ticket> tickets;
+    private final ScheduledExecutorService ioExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "TicketManager-io");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final CountDownLatch ready = new CountDownLatch(1);
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final List<Runnable> readyListeners = new ArrayList<>();
+    // Tickets by ID for O(1) lookup, update and delete, kept in insertion order
+    // Position of each ticket ID in ticketList
+    private HashMap<String, Slot> slots;
+    private long nextItemId;
+    // The same tickets in order, updated in place on every change, and the
+    // read-only view of it handed to adapters
+    private ArrayList<Ticket> ticketList;
+    private List<Ticket> ticketView;
+    private TicketIndex index;
     private SharedPreferences preferences;
-    private Gson gson;
+    private File snapshotFile;
+    private TicketJournal journal;
+    private TicketTypeAdapter ticketAdapter;
+    
+    // Write-behind state, guarded by writeLock
+    private final Object writeLock = new Object();
+    private List<Ticket> pendingSnapshot;
+    // Leading bytes of the journal buffer that pendingSnapshot covers
+    private int snapshotCoveredBytes;
+    private boolean writeScheduled;
+    private int eventsSinceSnapshot;
+    private long writeDelayMillis = DEFAULT_WRITE_DELAY_MILLIS;
     
     private TicketManager(Context context) {
         preferences = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
-        gson = new Gson();
-        loadTickets();
+        snapshotFile = new File(context.getFilesDir(), SNAPSHOT_FILE);
+        journal = new TicketJournal(new File(context.getFilesDir(), JOURNAL_FILE));
+        ticketAdapter = new TicketTypeAdapter();
+        ioExecutor.execute(() -> {
+            try {
+                loadTickets();
+            } finally {
+                onLoaded();
+            }
+        });
     }
     
+    /**
+     * Returns the manager, starting the background load on first use.
+     * This never blocks; see whenReady() and isReady().
+     */
     public static synchronized TicketManager getInstance(Context context) {
         if (instance == null) {
             instance = new TicketManager(context.getApplicationContext());
@@ -38,84 +117,506 @@ public class TicketManager {
         return instance;
     }
     
+    public boolean isReady() {
+        return ready.getCount() == 0;
+    }
+    
+    /**
+     * Runs the listener on the main thread once the book has loaded,
+     * immediately if it already has
+     */
+    public void whenReady(Runnable listener) {
+        synchronized (readyListeners) {
+            if (!isReady()) {
+                readyListeners.add(listener);
+                return;
+            }
+        }
+        listener.run();
+    }
+    
+    private void onLoaded() {
+        List<Runnable> listeners;
+        synchronized (readyListeners) {
+            ready.countDown();
+            listeners = new ArrayList<>(readyListeners);
+            readyListeners.clear();
+        }
+        for (Runnable listener : listeners) {
+            mainHandler.post(listener);
+        }
+    }
+    
+    // Blocks callers that need data before the background load has finished
+    private void awaitReady() {
+        if (isReady()) {
+            return;
+        }
+        Log.w(TAG, "Waiting for tickets to load");
+        boolean interrupted = false;
+        while (true) {
+            try {
+                ready.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
     private void loadTickets() {
+        slots = new HashMap<>();
+        ticketList = new ArrayList<>();
+        ticketView = Collections.unmodifiableList(ticketList);
+        index = new TicketIndex();
+        
+        if (snapshotFile.exists()) {
+            loadSnapshot();
+        } else {
+            migrateFromPreferences();
+        }
+        
+        try {
+            journal.replay(new TicketJournal.Replayer() {
+                @Override
+                public void onNumberCalled(int number) {
+                    index.markNumber(number);
+                }
+                
+                @Override
+                public void onTicketAdded(Ticket ticket) {
+                    putTicket(ticket);
+                }
+                
+                @Override
+                public void onTicketEdited(Ticket ticket) {
+                    replaceTicket(ticket);
+                }
+                
+                @Override
+                public void onTicketDeleted(String ticketId) {
+                    removeTicket(ticketId);
+                }
+                
+                @Override
+                public void onAllDeleted() {
+                    clearTickets();
+                }
+                
+                @Override
+                public void onNumberUncalled(int number) {
+                    index.unmarkNumber(number);
+                }
+            });
+        } catch (IOException e) {
+            Log.e(TAG, "Error replaying ticket journal: " + e.getMessage());
+        }
+        eventsSinceSnapshot = journal.getEventCount();
+    }
+    
+    private void loadSnapshot() {
+        try (Reader reader = new BufferedReader(new InputStreamReader(
+                new FileInputStream(snapshotFile), StandardCharsets.UTF_8))) {
+            readTickets(reader);
+        } catch (IOException | JsonParseException | IllegalStateException e) {
+            Log.e(TAG, "Error loading ticket snapshot: " + e.getMessage());
+        }
+    }
+    
+    // Books saved before the journal lived in a single SharedPreferences string
+    private void migrateFromPreferences() {
         String ticketsJson = preferences.getString(TICKETS_KEY, null);
-        if (ticketsJson != null) {
-            Type type = new TypeToken<ArrayList<Ticket>>(){}.getType();
-            tickets = gson.fromJson(ticketsJson, type);
+        if (ticketsJson == null) {
+            return;
+        }
+        try {
+            readTickets(new StringReader(ticketsJson));
+        } catch (IOException | JsonParseException | IllegalStateException e) {
+            Log.e(TAG, "Error migrating saved tickets: " + e.getMessage());
+            return;
+        }
+        Log.i(TAG, "Migrated " + ticketList.size() + " tickets from preferences");
+        if (writeSnapshot(new ArrayList<>(ticketList))) {
+            preferences.edit().remove(TICKETS_KEY).apply();
+        }
+    }
+    
+    // Streams a JSON array of tickets without building the document in memory.
+    // A ticket the adapter rejects is skipped so the rest of the book still loads.
+    private void readTickets(Reader reader) throws IOException {
+        JsonReader in = new JsonReader(reader);
+        in.beginArray();
+        while (in.hasNext()) {
+            Ticket ticket;
+            try {
+                ticket = ticketAdapter.read(in);
+            } catch (JsonParseException e) {
+                Log.e(TAG, "Error reading ticket: " + e.getMessage());
+                continue;
+            }
+            if (ticket != null) {
+                putTicket(ticket);
+            }
+        }
+        in.endArray();
+    }
+    
+    private void writeTickets(Writer writer, List<Ticket> snapshot) throws IOException {
+        JsonWriter out = new JsonWriter(writer);
+        out.beginArray();
+        for (Ticket ticket : snapshot) {
+            ticketAdapter.write(out, ticket);
+        }
+        out.endArray();
+        out.flush();
+    }
+    
+    // Writes the whole book to a new snapshot and starts an empty journal.
+    // Only called on the io thread.
+    private boolean writeSnapshot(List<Ticket> snapshot) {
+        File tempFile = new File(snapshotFile.getPath() + ".tmp");
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(tempFile), StandardCharsets.UTF_8))) {
+            writeTickets(writer, snapshot);
+        } catch (IOException e) {
+            Log.e(TAG, "Error writing ticket snapshot: " + e.getMessage());
+            return false;
+        }
+        if (!tempFile.renameTo(snapshotFile)) {
+            Log.e(TAG, "Error replacing ticket snapshot");
+            return false;
+        }
+        try {
+            journal.reset();
+        } catch (IOException e) {
+            Log.e(TAG, "Error resetting ticket journal: " + e.getMessage());
+        }
+        return true;
+    }
+    
+    /**
+     * Sets how long writes are coalesced before the writer thread persists them
+     */
+    public void setWriteDelayMillis(long writeDelayMillis) {
+        this.writeDelayMillis = writeDelayMillis;
+    }
+    
+    // Records one journal event and schedules the writer. Once the journal is
+    // long enough an immutable copy of the book is handed to the writer as well,
+    // and the buffered events it covers are dropped once it is on disk.
+    private void recordEvent(JournalEvent event) {
+        synchronized (writeLock) {
+            try {
+                event.append(journal);
+            } catch (IOException e) {
+                Log.e(TAG, "Error journaling ticket event: " + e.getMessage());
+            }
+            if (++eventsSinceSnapshot >= COMPACT_THRESHOLD) {
+                requestSnapshot();
+            }
+            scheduleWrite();
+        }
+    }
+    
+    private void requestSnapshot() {
+        List<Ticket> snapshot = new ArrayList<>(ticketList.size());
+        for (Ticket ticket : ticketList) {
+            snapshot.add(new Ticket(ticket.getTicketId(), ticket.copyCells(), ticket.getMarkedMask()));
+        }
+        synchronized (writeLock) {
+            pendingSnapshot = snapshot;
+            snapshotCoveredBytes = journal.getPendingSize();
+            eventsSinceSnapshot = 0;
+            scheduleWrite();
+        }
+    }
+    
+    private void scheduleWrite() {
+        scheduleWrite(writeDelayMillis);
+    }
+    
+    private void scheduleWrite(long delayMillis) {
+        if (!writeScheduled) {
+            writeScheduled = true;
+            ioExecutor.schedule(this::writePending, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    // Runs on the io thread: persists everything buffered since the last write
+    private void writePending() {
+        List<Ticket> snapshot;
+        int coveredBytes;
+        byte[] records;
+        synchronized (writeLock) {
+            writeScheduled = false;
+            snapshot = pendingSnapshot;
+            coveredBytes = snapshotCoveredBytes;
+            pendingSnapshot = null;
+            snapshotCoveredBytes = 0;
+            records = journal.drainPending();
+        }
+        if (snapshot != null && !writeSnapshot(snapshot)) {
+            // The old snapshot and journal are still the only copy on disk, so
+            // nothing may be dropped: keep every record and try again later
+            synchronized (writeLock) {
+                journal.restorePending(records);
+                if (pendingSnapshot == null) {
+                    pendingSnapshot = snapshot;
+                    snapshotCoveredBytes = coveredBytes;
+                } else {
+                    snapshotCoveredBytes += records.length;
+                }
+                scheduleWrite(SNAPSHOT_RETRY_MILLIS);
+            }
+            return;
+        }
+        // Events up to the snapshot are in it, the rest go to the fresh journal
+        int offset = snapshot != null ? coveredBytes : 0;
+        try {
+            journal.write(records, offset, records.length - offset);
+        } catch (IOException e) {
+            Log.e(TAG, "Error writing ticket journal: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Starts writing every pending change now instead of at the end of the
+     * write window, without waiting for it. Safe to call from the main thread.
+     */
+    public void flushAsync() {
+        synchronized (writeLock) {
+            if (!journal.hasPending() && pendingSnapshot == null) {
+                return;
+            }
+        }
+        ioExecutor.execute(this::writePending);
+    }
+    
+    /**
+     * Blocks until every pending change has been written. This may include
+     * a snapshot of the whole book, so keep it off the main thread; see
+     * flushAsync().
+     */
+    public void flush() {
+        flush(Long.MAX_VALUE);
+    }
+    
+    /**
+     * Writes every pending change now and waits at most timeoutMillis for it.
+     * A journal append takes a few milliseconds, so a short wait is enough
+     * unless the write includes a snapshot of a large book; that write then
+     * carries on in the background.
+     * @return true if everything pending has been written
+     */
+    public boolean flush(long timeoutMillis) {
+        synchronized (writeLock) {
+            if (!journal.hasPending() && pendingSnapshot == null) {
+                return true;
+            }
+        }
+        try {
+            ioExecutor.submit(this::writePending).get(timeoutMillis, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Log.e(TAG, "Error flushing tickets: " + e.getMessage());
+        } catch (TimeoutException e) {
+            Log.w(TAG, "Ticket flush still running after " + timeoutMillis + " ms");
+        }
+        return false;
+    }
+    
+    private interface JournalEvent {
+        void append(TicketJournal journal) throws IOException;
+    }
+    
+    // Where a ticket sits in ticketList, and the list item ID it keeps for
+    // as long as it is in the book
+    private static final class Slot {
+        int position;
+        final long itemId;
+        
+        Slot(int position, long itemId) {
+            this.position = position;
+            this.itemId = itemId;
+        }
+    }
+    
+    private void putTicket(Ticket ticket) {
+        Slot slot = slots.get(ticket.getTicketId());
+        if (slot != null) {
+            // Re-adding an ID keeps its place
+            index.remove(ticketList.get(slot.position));
+            ticketList.set(slot.position, ticket);
         } else {
-            tickets = new ArrayList<>();
+            slots.put(ticket.getTicketId(), new Slot(ticketList.size(), nextItemId++));
+            ticketList.add(ticket);
+        }
+        index.add(ticket);
+    }
+    
+    private boolean replaceTicket(Ticket ticket) {
+        Slot slot = slots.get(ticket.getTicketId());
+        if (slot == null) {
+            return false;
+        }
+        index.update(ticketList.get(slot.position), ticket);
+        ticketList.set(slot.position, ticket);
+        return true;
+    }
+    
+    private boolean removeTicket(String ticketId) {
+        Slot slot = slots.remove(ticketId);
+        if (slot == null) {
+            return false;
         }
+        index.remove(ticketList.get(slot.position));
+        // The last ticket moves into the gap, so nothing after it has to shift
+        int last = ticketList.size() - 1;
+        if (slot.position != last) {
+            Ticket moved = ticketList.get(last);
+            ticketList.set(slot.position, moved);
+            slots.get(moved.getTicketId()).position = slot.position;
+        }
+        ticketList.remove(last);
+        return true;
     }
     
-    private void saveTickets() {
-        String ticketsJson = gson.toJson(tickets);
-        preferences.edit().putString(TICKETS_KEY, ticketsJson).apply();
+    private void clearTickets() {
+        slots.clear();
+        index.clear();
+        ticketList.clear();
     }
     
+    /**
+     * Returns the tickets in insertion order, except that deleting a ticket
+     * moves the last one into its place. The list is a live read-only view:
+     * adds and deletes show up in it at once, so adapters holding it must be
+     * notified of them.
+     */
     public List<Ticket> getTickets() {
-        return tickets;
+        awaitReady();
+        return ticketView;
     }
     
     public Ticket getTicket(String ticketId) {
-        for (Ticket ticket : tickets) {
-            if (ticket.getTicketId().equals(ticketId)) {
-                return ticket;
-            }
-        }
-        return null;
+        awaitReady();
+        Slot slot = slots.get(ticketId);
+        return slot != null ? ticketList.get(slot.position) : null;
+    }
+    
+    /**
+     * Stable RecyclerView item ID for a ticket in the book, unique while the
+     * app runs, or -1 (RecyclerView.NO_ID) if the book doesn't hold it
+     */
+    public long getItemId(String ticketId) {
+        awaitReady();
+        Slot slot = slots.get(ticketId);
+        return slot != null ? slot.itemId : -1;
     }
     
     public Ticket createTicket() {
         String ticketId = "TICKET-" + UUID.randomUUID().toString().substring(0, 8);
         Ticket ticket = new Ticket(ticketId);
-        tickets.add(ticket);
-        saveTickets();
+        addTicket(ticket);
         return ticket;
     }
     
     public void addTicket(Ticket ticket) {
-        tickets.add(ticket);
-        saveTickets();
+        awaitReady();
+        putTicket(ticket);
+        recordEvent(journal -> journal.appendTicketAdded(ticket));
     }
     
-    public void updateTicket(Ticket ticket) {
-        for (int i = 0; i < tickets.size(); i++) {
-            if (tickets.get(i).getTicketId().equals(ticket.getTicketId())) {
-                tickets.set(i, ticket);
-                saveTickets();
-                return;
+    /**
+     * Adds many tickets at once, e.g. generated strips or an imported book.
+     * The book is saved as one snapshot rather than an event per ticket.
+     * Tickets breaking the housie rules are left out and returned, with the
+     * offending cells, so the caller can report them.
+     */
+    public List<TicketValidator.Result> addTickets(List<Ticket> newTickets) {
+        awaitReady();
+        List<TicketValidator.Result> rejected = TicketValidator.validateAll(newTickets);
+        if (newTickets.size() == rejected.size()) {
+            return rejected;
+        }
+        int next = 0;
+        for (Ticket ticket : newTickets) {
+            if (next < rejected.size() && rejected.get(next).getTicket() == ticket) {
+                Log.w(TAG, "Skipping invalid ticket " + ticket.getTicketId() + ": " + rejected.get(next).getSummary());
+                next++;
+                continue;
             }
+            putTicket(ticket);
+        }
+        requestSnapshot();
+        return rejected;
+    }
+    
+    public void updateTicket(Ticket ticket) {
+        awaitReady();
+        if (replaceTicket(ticket)) {
+            recordEvent(journal -> journal.appendTicketEdited(ticket));
         }
     }
     
     public void deleteTicket(String ticketId) {
-        for (int i = 0; i < tickets.size(); i++) {
-            if (tickets.get(i).getTicketId().equals(ticketId)) {
-                tickets.remove(i);
-                saveTickets();
-                return;
-            }
+        awaitReady();
+        if (removeTicket(ticketId)) {
+            recordEvent(journal -> journal.appendTicketDeleted(ticketId));
         }
     }
     
     public void deleteAllTickets() {
-        tickets.clear();
-        saveTickets();
+        awaitReady();
+        clearTickets();
+        recordEvent(journal -> journal.appendAllDeleted());
     }
     
     public void markNumberInAllTickets(int number) {
-        for (Ticket ticket : tickets) {
-            ticket.markNumber(number);
-        }
-        saveTickets();
+        markNumberInAllTickets(number, null);
+    }
+    
+    public void markNumberInAllTickets(int number, TicketIndex.OnCellMarkedListener listener) {
+        awaitReady();
+        // Only the tickets holding the number are touched
+        index.markNumber(number, listener);
+        recordEvent(journal -> journal.appendNumberCalled(number));
+    }
+    
+    /**
+     * Saves a call whose marks were already applied to the book's tickets,
+     * e.g. by a GameEngine playing on them
+     */
+    public void recordNumberCalled(int number) {
+        awaitReady();
+        recordEvent(journal -> journal.appendNumberCalled(number));
+    }
+    
+    /**
+     * Saves a call taken back with GameEngine.undo, whose marks were already
+     * removed from the book's tickets
+     */
+    public void recordNumberUncalled(int number) {
+        awaitReady();
+        recordEvent(journal -> journal.appendNumberUncalled(number));
     }
     
-    public List<Ticket> getWinningTickets() {
+    /**
+     * Tickets completing any of the given patterns, a GameConfig bitset. During
+     * a game use GameEngine.getWinningTickets, which also leaves out prizes
+     * closed by another ticket's claim.
+     */
+    public List<Ticket> getWinningTickets(long enabledPatterns) {
+        awaitReady();
         List<Ticket> winningTickets = new ArrayList<>();
         
-        for (Ticket ticket : tickets) {
-            if (!ticket.checkWinningPatterns().isEmpty()) {
+        for (Ticket ticket : ticketList) {
+            if (ticket.getWinResult(enabledPatterns).hasWins()) {
                 winningTickets.add(ticket);
             }
         }
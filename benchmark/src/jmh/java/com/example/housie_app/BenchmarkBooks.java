@@ -0,0 +1,38 @@
+package com.example.housie_app;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeded ticket books and call orders shared by the benchmarks
+ */
+final class BenchmarkBooks {
+
+    private BenchmarkBooks() {
+    }
+
+    /**
+     * Builds a book of valid tickets, strip by strip
+     */
+    static List<Ticket> newBook(int size, long seed) {
+        return new StripGenerator(seed).generate(size);
+    }
+
+    /**
+     * Returns 1-90 in a seeded random call order
+     */
+    static int[] callOrder(long seed) {
+        List<Integer> numbers = new ArrayList<>();
+        for (int n = 1; n <= TicketIndex.MAX_NUMBER; n++) {
+            numbers.add(n);
+        }
+        Collections.shuffle(numbers, new Random(seed));
+        int[] order = new int[numbers.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = numbers.get(i);
+        }
+        return order;
+    }
+}
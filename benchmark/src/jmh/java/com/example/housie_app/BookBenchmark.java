@@ -0,0 +1,170 @@
+package com.example.housie_app;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole-book operations by book size and game progress.
+ *
+ * TicketManager needs an Android Context, so these measure the work its
+ * methods delegate to: markNumberInAllTickets is a TicketIndex lookup,
+ * getWinningTickets is a scan of checkWinningPatterns, and persistence
+ * streams the book through TicketTypeAdapter. The reflective Gson variants
+ * are the baseline the adapter is compared against; Ticket itself is bound
+ * to the adapter, so they go through a mirror of its persisted fields.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BookBenchmark {
+
+    private static final Type BOOK_TYPE = new TypeToken<List<ReflectiveTicket>>() {}.getType();
+
+    // Ticket's persisted fields, for Gson to bind by reflection
+    static final class ReflectiveTicket {
+        String ticketId;
+        byte[] cells;
+        int markedMask;
+
+        ReflectiveTicket(Ticket ticket) {
+            this.ticketId = ticket.getTicketId();
+            this.cells = ticket.copyCells();
+            this.markedMask = ticket.getMarkedMask();
+        }
+    }
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int bookSize;
+
+    @Param({"0", "30", "60", "89"})
+    public int calls;
+
+    private List<Ticket> tickets;
+    private TicketIndex index;
+    private TicketTypeAdapter adapter;
+    private String json;
+    private Gson gson;
+    private List<ReflectiveTicket> reflectiveTickets;
+    private String reflectiveJson;
+    private int nextNumber;
+
+    // Cells marked by the measured call, so they can be unmarked afterwards
+    private Ticket[] markedTickets;
+    private int[] markedCells;
+    private int markedCount;
+    private final TicketIndex.OnCellMarkedListener recorder = (ticket, cell) -> {
+        markedTickets[markedCount] = ticket;
+        markedCells[markedCount] = cell;
+        markedCount++;
+    };
+
+    @Setup
+    public void setUp() throws IOException {
+        tickets = BenchmarkBooks.newBook(bookSize, 1L);
+        index = new TicketIndex();
+        for (Ticket ticket : tickets) {
+            index.add(ticket);
+        }
+        int[] order = BenchmarkBooks.callOrder(2L);
+        for (int i = 0; i < calls; i++) {
+            index.markNumber(order[i]);
+        }
+        nextNumber = order[calls];
+        markedTickets = new Ticket[bookSize];
+        markedCells = new int[bookSize];
+
+        adapter = new TicketTypeAdapter();
+        json = write(tickets);
+        gson = new Gson();
+        reflectiveTickets = new ArrayList<>(bookSize);
+        for (Ticket ticket : tickets) {
+            reflectiveTickets.add(new ReflectiveTicket(ticket));
+        }
+        reflectiveJson = gson.toJson(reflectiveTickets, BOOK_TYPE);
+    }
+
+    /**
+     * Calls the next number, then unmarks it so every invocation does the same work
+     */
+    @Benchmark
+    public int markNumberInAllTickets() {
+        markedCount = 0;
+        int marked = index.markNumber(nextNumber, recorder);
+        for (int i = 0; i < markedCount; i++) {
+            int cell = markedCells[i];
+            markedTickets[i].setMarked(cell / Ticket.COLS, cell % Ticket.COLS, false);
+            markedTickets[i] = null;
+        }
+        return marked;
+    }
+
+    @Benchmark
+    public List<Ticket> getWinningTickets() {
+        List<Ticket> winningTickets = new ArrayList<>();
+        for (Ticket ticket : tickets) {
+            if (!ticket.checkWinningPatterns().isEmpty()) {
+                winningTickets.add(ticket);
+            }
+        }
+        return winningTickets;
+    }
+
+    @Benchmark
+    public String writeBook() throws IOException {
+        return write(tickets);
+    }
+
+    @Benchmark
+    public List<Ticket> readBook() throws IOException {
+        JsonReader in = new JsonReader(new StringReader(json));
+        List<Ticket> result = new ArrayList<>(bookSize);
+        in.beginArray();
+        while (in.hasNext()) {
+            result.add(adapter.read(in));
+        }
+        in.endArray();
+        return result;
+    }
+
+    @Benchmark
+    public String writeBookReflective() {
+        return gson.toJson(reflectiveTickets, BOOK_TYPE);
+    }
+
+    @Benchmark
+    public List<ReflectiveTicket> readBookReflective() {
+        return gson.fromJson(reflectiveJson, BOOK_TYPE);
+    }
+
+    // Same streaming layout as the ticket snapshot
+    private String write(List<Ticket> book) throws IOException {
+        StringWriter writer = new StringWriter();
+        JsonWriter out = new JsonWriter(writer);
+        out.beginArray();
+        for (Ticket ticket : book) {
+            adapter.write(out, ticket);
+        }
+        out.endArray();
+        out.flush();
+        return writer.toString();
+    }
+}
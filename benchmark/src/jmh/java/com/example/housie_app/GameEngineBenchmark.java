@@ -0,0 +1,49 @@
+package com.example.housie_app;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays a whole recorded game through the headless engine
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GameEngineBenchmark {
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int bookSize;
+
+    private GameEngine engine;
+    private int[] order;
+
+    @Setup
+    public void setUp() {
+        engine = new GameEngine();
+        engine.load(BenchmarkBooks.newBook(bookSize, 1L));
+        order = BenchmarkBooks.callOrder(2L);
+    }
+
+    /**
+     * Calls all 90 numbers, then undoes them so the next invocation starts clean
+     */
+    @Benchmark
+    public int replayGame() {
+        int wins = 0;
+        for (int number : order) {
+            wins += engine.callNumber(number).size();
+        }
+        while (engine.undo() >= 0) {
+            // Rewind to the start of the game
+        }
+        return wins;
+    }
+}
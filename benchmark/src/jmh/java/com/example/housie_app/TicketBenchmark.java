@@ -0,0 +1,85 @@
+package com.example.housie_app;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-ticket operations at different stages of a game
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TicketBenchmark {
+
+    @Param({"0", "30", "60", "89"})
+    public int calls;
+
+    private Ticket ticket;
+    private int nextNumber;
+    private int nextCell;
+
+    @Setup
+    public void setUp() {
+        ticket = BenchmarkBooks.newBook(1, 1L).get(0);
+        int[] order = BenchmarkBooks.callOrder(2L);
+        // The ticket's last number to be called stays unmarked, so the measured
+        // call always marks a cell however far the game has gone
+        for (int i = order.length - 1; i >= 0; i--) {
+            nextCell = findCell(order[i]);
+            if (nextCell >= 0) {
+                nextNumber = order[i];
+                break;
+            }
+        }
+        for (int i = 0; i < calls; i++) {
+            if (order[i] != nextNumber) {
+                ticket.markNumber(order[i]);
+            }
+        }
+    }
+
+    private int findCell(int number) {
+        for (int cell = 0; cell < Ticket.CELLS; cell++) {
+            if (ticket.getCell(cell) == number) {
+                return cell;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Marks a number the ticket holds, then unmarks it so every invocation does the same work
+     */
+    @Benchmark
+    public Ticket markNumber() {
+        ticket.markNumber(nextNumber);
+        ticket.unmarkCell(nextCell);
+        return ticket;
+    }
+
+    /**
+     * Unchanged ticket, served from the cached win result
+     */
+    @Benchmark
+    public List<String> checkWinningPatterns() {
+        return ticket.checkWinningPatterns();
+    }
+
+    /**
+     * Ticket changed since the last check, so every pattern is evaluated
+     */
+    @Benchmark
+    public List<String> checkWinningPatternsAfterChange() {
+        ticket.setMarked(0, 0, ticket.isMarked(0, 0));
+        return ticket.checkWinningPatterns();
+    }
+}
@@ -0,0 +1,267 @@
+package com.example.housie_app;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Shrinks a camera frame to what text recognition actually needs: the ticket
+ * grid is located as the densest block of edges (digits and printed lines),
+ * cropped, and box-averaged down until the ticket's short side is about
+ * TARGET_SHORT_SIDE pixels. Only the luminance plane is read; the output is
+ * a grey NV21 image in a buffer that is reused from frame to frame.
+ *
+ * Not thread-safe, and the buffer returned by getNv21() is overwritten by
+ * the next frame.
+ */
+public class FramePreprocessor {
+    // Short side of the output; digits stay around 25 px high, enough to read reliably
+    public static final int TARGET_SHORT_SIDE = 192;
+
+    // Sampling step of the edge search, in pixels
+    static final int STEP = 4;
+    // Brightness difference between neighbouring samples that counts as an edge
+    static final int EDGE_CONTRAST = 40;
+    // Share of the busiest bin a bin needs to belong to the ticket
+    private static final float SPAN_FRACTION = 0.1f;
+    // Smallest share of the frame a located ticket may cover before the whole frame is used
+    private static final float MIN_SPAN = 0.15f;
+    private static final int MARGIN_BINS = 3;
+    private static final byte NEUTRAL_CHROMA = (byte) 128;
+
+    private int cropLeft;
+    private int cropTop;
+    private int cropRight;
+    private int cropBottom;
+    private int outWidth;
+    private int outHeight;
+    // The located edges themselves, without the margin; in frame pixels
+    // after locate(), in output pixels after crop()
+    private int gridLeft;
+    private int gridTop;
+    private int gridRight;
+    private int gridBottom;
+
+    // Reused between frames, grown when a frame needs more
+    private boolean[] edges = new boolean[0];
+    private int[] colEnergy = new int[0];
+    private int[] rowEnergy = new int[0];
+    private int[] sums = new int[0];
+    private byte[] rowBuffer = new byte[0];
+    private byte[] nv21 = new byte[0];
+    private ByteBuffer nv21Buffer = ByteBuffer.wrap(nv21);
+    private final int[] hashMeans = new int[Ticket.CELLS];
+
+    /**
+     * Finds the ticket in a luminance plane (one byte per pixel, rows
+     * rowStride apart) and remembers its rectangle. Falls back to the whole
+     * frame when nothing ticket-like stands out.
+     */
+    public void locate(ByteBuffer luma, int width, int height, int rowStride) {
+        int cols = width / STEP - 1;
+        int rows = height / STEP - 1;
+        if (cols < 1 || rows < 1) {
+            setCrop(0, 0, width, height);
+            return;
+        }
+        if (edges.length < cols * rows) {
+            edges = new boolean[cols * rows];
+        }
+        if (colEnergy.length < cols) {
+            colEnergy = new int[cols];
+        }
+        if (rowEnergy.length < rows) {
+            rowEnergy = new int[rows];
+        }
+
+        for (int cy = 0; cy < rows; cy++) {
+            int rowStart = cy * STEP * rowStride;
+            int below = rowStart + STEP * rowStride;
+            for (int cx = 0; cx < cols; cx++) {
+                int x = cx * STEP;
+                int pixel = luma.get(rowStart + x) & 0xFF;
+                int right = luma.get(rowStart + x + STEP) & 0xFF;
+                int down = luma.get(below + x) & 0xFF;
+                edges[cy * cols + cx] = Math.abs(pixel - right) > EDGE_CONTRAST
+                        || Math.abs(pixel - down) > EDGE_CONTRAST;
+            }
+        }
+
+        // Columns over the whole frame, rows within those columns, then the
+        // columns again within those rows, so clutter beside the ticket drops out
+        project(cols, rows, 0, cols, 0, rows, true);
+        long colSpan = span(colEnergy, cols);
+        int left = (int) (colSpan >>> 32);
+        int right = (int) colSpan;
+        project(cols, rows, left, right, 0, rows, false);
+        long rowSpan = span(rowEnergy, rows);
+        int top = (int) (rowSpan >>> 32);
+        int bottom = (int) rowSpan;
+        project(cols, rows, 0, cols, top, bottom, true);
+        colSpan = span(colEnergy, cols);
+        left = (int) (colSpan >>> 32);
+        right = (int) colSpan;
+
+        if (right - left < MIN_SPAN * cols || bottom - top < MIN_SPAN * rows) {
+            setCrop(0, 0, width, height);
+            return;
+        }
+        // Some quiet margin around the edges found helps recognition
+        setCrop(Math.max(0, (left - MARGIN_BINS) * STEP), Math.max(0, (top - MARGIN_BINS) * STEP),
+                Math.min(width, (right + MARGIN_BINS + 1) * STEP), Math.min(height, (bottom + MARGIN_BINS + 1) * STEP));
+        gridLeft = left * STEP;
+        gridTop = top * STEP;
+        gridRight = Math.min(width, (right + 1) * STEP);
+        gridBottom = Math.min(height, (bottom + 1) * STEP);
+    }
+
+    private void project(int cols, int rows, int fromCol, int toCol, int fromRow, int toRow, boolean columns) {
+        int[] energy = columns ? colEnergy : rowEnergy;
+        Arrays.fill(energy, 0, columns ? cols : rows, 0);
+        for (int cy = fromRow; cy < toRow; cy++) {
+            for (int cx = fromCol; cx < toCol; cx++) {
+                if (edges[cy * cols + cx]) {
+                    energy[columns ? cx : cy]++;
+                }
+            }
+        }
+    }
+
+    // Longest run of busy bins, allowing short quiet gaps such as the space
+    // between rows; returns first (high 32 bits) and end (low 32 bits)
+    private static long span(int[] energy, int bins) {
+        int max = 0;
+        for (int i = 0; i < bins; i++) {
+            max = Math.max(max, energy[i]);
+        }
+        int threshold = Math.max(1, (int) (SPAN_FRACTION * max));
+        int maxGap = Math.max(2, bins / 8);
+
+        int bestFirst = 0;
+        int bestEnd = 0;
+        int first = -1;
+        int lastBusy = -1;
+        for (int i = 0; i < bins; i++) {
+            if (energy[i] < threshold) {
+                continue;
+            }
+            if (first < 0 || i - lastBusy > maxGap) {
+                first = i;
+            }
+            lastBusy = i;
+            if (lastBusy + 1 - first > bestEnd - bestFirst) {
+                bestFirst = first;
+                bestEnd = lastBusy + 1;
+            }
+        }
+        return ((long) bestFirst << 32) | bestEnd;
+    }
+
+    private void setCrop(int left, int top, int right, int bottom) {
+        cropLeft = left;
+        cropTop = top;
+        cropRight = right;
+        cropBottom = bottom;
+        gridLeft = left;
+        gridTop = top;
+        gridRight = right;
+        gridBottom = bottom;
+    }
+
+    /**
+     * Box-averages the located rectangle into the NV21 buffer. The chroma
+     * planes are left neutral, recognition only needs the brightness.
+     */
+    public void crop(ByteBuffer luma, int rowStride) {
+        int cropWidth = cropRight - cropLeft;
+        int cropHeight = cropBottom - cropTop;
+        int factor = Math.max(1, Math.min(cropWidth, cropHeight) / TARGET_SHORT_SIDE);
+        // NV21 needs even dimensions
+        outWidth = (cropWidth / factor) & ~1;
+        outHeight = (cropHeight / factor) & ~1;
+        gridLeft = Math.min(outWidth, (gridLeft - cropLeft) / factor);
+        gridTop = Math.min(outHeight, (gridTop - cropTop) / factor);
+        gridRight = Math.min(outWidth, (gridRight - cropLeft) / factor);
+        gridBottom = Math.min(outHeight, (gridBottom - cropTop) / factor);
+
+        int lumaSize = outWidth * outHeight;
+        int size = lumaSize + lumaSize / 2;
+        if (nv21.length < size) {
+            nv21 = new byte[size];
+            nv21Buffer = ByteBuffer.wrap(nv21);
+        }
+        int span = outWidth * factor;
+        if (rowBuffer.length < span) {
+            rowBuffer = new byte[span];
+        }
+        if (sums.length < outWidth) {
+            sums = new int[outWidth];
+        }
+
+        // Positioned through Buffer, older Android runtimes lack ByteBuffer's covariant overrides
+        Buffer lumaPosition = luma;
+        int area = factor * factor;
+        for (int oy = 0; oy < outHeight; oy++) {
+            Arrays.fill(sums, 0, outWidth, 0);
+            for (int k = 0; k < factor; k++) {
+                lumaPosition.position((cropTop + oy * factor + k) * rowStride + cropLeft);
+                luma.get(rowBuffer, 0, span);
+                for (int ox = 0, x = 0; ox < outWidth; ox++) {
+                    int sum = 0;
+                    for (int end = x + factor; x < end; x++) {
+                        sum += rowBuffer[x] & 0xFF;
+                    }
+                    sums[ox] += sum;
+                }
+            }
+            int out = oy * outWidth;
+            for (int ox = 0; ox < outWidth; ox++) {
+                nv21[out + ox] = (byte) (sums[ox] / area);
+            }
+        }
+        lumaPosition.rewind();
+        Arrays.fill(nv21, lumaSize, size, NEUTRAL_CHROMA);
+        Buffer output = nv21Buffer;
+        output.clear();
+        output.limit(size);
+    }
+
+    /**
+     * The last cropped frame as NV21, getWidth() x getHeight()
+     */
+    public ByteBuffer getNv21() {
+        return nv21Buffer;
+    }
+
+    /**
+     * Perceptual hash of the ticket in the last cropped frame, see TicketHashCache
+     */
+    public long getHash() {
+        return TicketHashCache.hash(nv21, outWidth, gridLeft, gridTop, gridRight, gridBottom, hashMeans);
+    }
+
+    public int getWidth() {
+        return outWidth;
+    }
+
+    public int getHeight() {
+        return outHeight;
+    }
+
+    // Located rectangle, in frame pixels
+    public int getCropLeft() {
+        return cropLeft;
+    }
+
+    public int getCropTop() {
+        return cropTop;
+    }
+
+    public int getCropRight() {
+        return cropRight;
+    }
+
+    public int getCropBottom() {
+        return cropBottom;
+    }
+}
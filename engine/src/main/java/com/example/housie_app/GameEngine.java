@@ -0,0 +1,263 @@
+package com.example.housie_app;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Headless housie game: a loaded ticket book, the numbers called so far and
+ * the prizes won. Plain Java with no Android dependencies, so the same engine
+ * drives the game screen and can replay recorded sessions on a desktop JVM.
+ *
+ * Not thread-safe; drive it from one thread.
+ */
+public class GameEngine {
+
+    // Cells one call marked, the wins it produced and the prizes closed
+    // before the next call, kept for undo
+    private static final class CallRecord {
+        final int number;
+        Ticket[] tickets = new Ticket[8];
+        byte[] cells = new byte[8];
+        int size;
+        List<WinTracker.WinEvent> wins = Collections.emptyList();
+        long closedPatterns;
+
+        CallRecord(int number) {
+            this.number = number;
+        }
+
+        void add(Ticket ticket, int cell) {
+            if (size == tickets.length) {
+                tickets = Arrays.copyOf(tickets, size * 2);
+                cells = Arrays.copyOf(cells, size * 2);
+            }
+            tickets[size] = ticket;
+            cells[size] = (byte) cell;
+            size++;
+        }
+    }
+
+    /**
+     * Immutable copy of the engine state
+     */
+    public static final class Snapshot {
+        private final List<Ticket> tickets;
+        private final int[] calledNumbers;
+        private final List<WinTracker.WinEvent> wins;
+
+        Snapshot(List<Ticket> tickets, int[] calledNumbers, List<WinTracker.WinEvent> wins) {
+            this.tickets = Collections.unmodifiableList(tickets);
+            this.calledNumbers = calledNumbers;
+            this.wins = Collections.unmodifiableList(wins);
+        }
+
+        /**
+         * Copies of the tickets as they were when the snapshot was taken
+         */
+        public List<Ticket> getTickets() {
+            return tickets;
+        }
+
+        /**
+         * Called numbers in call order
+         */
+        public int[] getCalledNumbers() {
+            return calledNumbers.clone();
+        }
+
+        public List<WinTracker.WinEvent> getWins() {
+            return wins;
+        }
+    }
+
+    private final long enabledPatterns;
+    private final List<TicketIndex.OnCellMarkedListener> listeners = new ArrayList<>();
+    private List<Ticket> tickets = Collections.emptyList();
+    private TicketIndex index = new TicketIndex();
+    private WinTracker winTracker = new WinTracker(tickets);
+    private final boolean[] called = new boolean[TicketIndex.MAX_NUMBER + 1];
+    private final List<CallRecord> calls = new ArrayList<>();
+    private final List<WinTracker.WinEvent> wins = new ArrayList<>();
+    private CallRecord currentCall;
+
+    private final TicketIndex.OnCellMarkedListener dispatcher = (ticket, cell) -> {
+        currentCall.add(ticket, cell);
+        winTracker.onCellMarked(ticket, cell);
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).onCellMarked(ticket, cell);
+        }
+    };
+
+    public GameEngine() {
+        this(-1L);
+    }
+
+    /**
+     * Creates an engine that only plays the given patterns (a registry bitset)
+     */
+    public GameEngine(long enabledPatterns) {
+        this.enabledPatterns = enabledPatterns;
+    }
+
+    /**
+     * Loads the ticket book and starts a new game on it. The tickets are
+     * marked in place; marks they already carry count as made before the game.
+     */
+    public void load(List<Ticket> tickets) {
+        this.tickets = new ArrayList<>(tickets);
+        index = new TicketIndex();
+        for (Ticket ticket : this.tickets) {
+            index.add(ticket);
+        }
+        winTracker = new WinTracker(this.tickets, enabledPatterns);
+        Arrays.fill(called, false);
+        calls.clear();
+        wins.clear();
+    }
+
+    /**
+     * Receives every cell marked by later calls and unmarked by undo, and
+     * every prize closed or reopened, e.g. a NearWinTracker
+     */
+    public void addCellMarkedListener(TicketIndex.OnCellMarkedListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Marks the number on every ticket that holds it
+     * @return the prizes this call completed, in ticket order
+     */
+    public List<WinTracker.WinEvent> callNumber(int number) {
+        if (number < 1 || number > TicketIndex.MAX_NUMBER) {
+            throw new IllegalArgumentException("Number out of range: " + number);
+        }
+        if (called[number]) {
+            throw new IllegalStateException("Number already called: " + number);
+        }
+        called[number] = true;
+        currentCall = new CallRecord(number);
+        index.markNumber(number, dispatcher);
+        List<WinTracker.WinEvent> completed = winTracker.drainEvents();
+        currentCall.wins = completed;
+        calls.add(currentCall);
+        currentCall = null;
+        wins.addAll(completed);
+        return completed;
+    }
+
+    /**
+     * Takes back the last call, reopening prizes closed since, unmarking its
+     * cells and retracting its wins
+     * @return the number taken back, or -1 if nothing has been called
+     */
+    public int undo() {
+        if (calls.isEmpty()) {
+            return -1;
+        }
+        CallRecord record = calls.remove(calls.size() - 1);
+        // Later calls are undone already, so the counters are as they were at the close
+        for (long bits = record.closedPatterns; bits != 0; bits &= bits - 1) {
+            int pattern = Long.numberOfTrailingZeros(bits);
+            winTracker.reopenPattern(pattern);
+            for (int j = 0; j < listeners.size(); j++) {
+                listeners.get(j).onPatternReopened(pattern);
+            }
+        }
+        for (int i = 0; i < record.size; i++) {
+            Ticket ticket = record.tickets[i];
+            int cell = record.cells[i];
+            ticket.unmarkCell(cell);
+            winTracker.onCellUnmarked(ticket, cell);
+            for (int j = 0; j < listeners.size(); j++) {
+                listeners.get(j).onCellUnmarked(ticket, cell);
+            }
+        }
+        wins.subList(wins.size() - record.wins.size(), wins.size()).clear();
+        called[record.number] = false;
+        return record.number;
+    }
+
+    /**
+     * Stops awarding a pattern once its prize has been claimed. Undoing the
+     * last call reopens it.
+     */
+    public void closePattern(int pattern) {
+        if (!winTracker.isPatternActive(pattern)) {
+            return;
+        }
+        winTracker.closePattern(pattern);
+        if (!calls.isEmpty()) {
+            calls.get(calls.size() - 1).closedPatterns |= 1L << pattern;
+        }
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).onPatternClosed(pattern);
+        }
+    }
+
+    public boolean isPatternActive(int pattern) {
+        return winTracker.isPatternActive(pattern);
+    }
+
+    /**
+     * Patterns the ticket's wins are shown against, see WinTracker
+     */
+    public long getPrizePatterns(Ticket ticket) {
+        return winTracker.getPrizePatterns(ticket);
+    }
+
+    public boolean isCalled(int number) {
+        return number >= 1 && number <= TicketIndex.MAX_NUMBER && called[number];
+    }
+
+    /**
+     * Called numbers in call order
+     */
+    public int[] getCalledNumbers() {
+        int[] numbers = new int[calls.size()];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = calls.get(i).number;
+        }
+        return numbers;
+    }
+
+    public List<Ticket> getTickets() {
+        return Collections.unmodifiableList(tickets);
+    }
+
+    /**
+     * Every prize won so far, in the order it was won
+     */
+    public List<WinTracker.WinEvent> getWins() {
+        return Collections.unmodifiableList(wins);
+    }
+
+    /**
+     * Tickets that have won at least one prize, open or claimed by them
+     */
+    public List<Ticket> getWinningTickets() {
+        List<Ticket> winningTickets = new ArrayList<>();
+        for (Ticket ticket : tickets) {
+            if (ticket.getWinResult(getPrizePatterns(ticket)).hasWins()) {
+                winningTickets.add(ticket);
+            }
+        }
+        return winningTickets;
+    }
+
+    /**
+     * Returns the tickets that gained marks since the last drain
+     */
+    public List<WinTracker.MarkChange> drainChanges() {
+        return winTracker.drainChanges();
+    }
+
+    public Snapshot snapshot() {
+        List<Ticket> copies = new ArrayList<>(tickets.size());
+        for (Ticket ticket : tickets) {
+            copies.add(new Ticket(ticket.getTicketId(), ticket.copyCells(), ticket.getMarkedMask()));
+        }
+        return new Snapshot(copies, getCalledNumbers(), new ArrayList<>(wins));
+    }
+}
@@ -0,0 +1,348 @@
+package com.example.housie_app;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Tracks how close each ticket is to each prize during a game.
+ * Keeps, per ticket and pattern, the number of cells still needed, an index
+ * from every number to the (ticket, pattern) pairs it would complete, and a
+ * ranking of the tickets closest to any prize. Each marked cell only updates
+ * the counters it touches, and a ticket whose distance changes is re-ranked
+ * in O(log n), so the closest-tickets panel never rescans the book.
+ */
+public class NearWinTracker implements TicketIndex.OnCellMarkedListener {
+
+    /**
+     * A ticket that is one number away from a pattern, and the numbers that
+     * would complete it
+     */
+    public static final class NearWin {
+        public final Ticket ticket;
+        public final int position;
+        public final int pattern;
+        public final int[] numbers;
+
+        NearWin(Ticket ticket, int position, int pattern, int[] numbers) {
+            this.ticket = ticket;
+            this.position = position;
+            this.pattern = pattern;
+            this.numbers = numbers;
+        }
+
+        public WinningPattern getPattern() {
+            return PatternRegistry.getDefault().get(pattern);
+        }
+    }
+
+    private static final class TicketState {
+        final Ticket ticket;
+        final int position;
+        final long[] cellPatterns = new long[Ticket.CELLS]; // patterns each cell contributes to
+        final int[] remaining; // cells still needed per pattern, 0 once complete
+        final NearWin[] nearWins; // indexed entries for patterns one away
+        final int[] distanceCounts = new int[Ticket.CELLS + 1]; // open patterns per distance
+        int closest; // smallest open distance, 0 if nothing is open
+
+        TicketState(Ticket ticket, int position, int patternCount, long enabledPatterns) {
+            this.ticket = ticket;
+            this.position = position;
+            this.remaining = new int[patternCount];
+            this.nearWins = new NearWin[patternCount];
+            int marked = ticket.getMarkedMask();
+            for (int p = 0; p < patternCount; p++) {
+                int required = ticket.getPatternRequired(p);
+                if ((enabledPatterns & (1L << p)) == 0 || required == WinningPattern.UNREACHABLE) {
+                    continue;
+                }
+                int mask = ticket.getPatternMask(p);
+                remaining[p] = Math.max(0, required - Integer.bitCount(marked & mask));
+                if (remaining[p] > 0) {
+                    distanceCounts[remaining[p]]++;
+                }
+                for (int bits = mask; bits != 0; bits &= bits - 1) {
+                    cellPatterns[Integer.numberOfTrailingZeros(bits)] |= 1L << p;
+                }
+            }
+        }
+
+        int computeClosest() {
+            for (int d = 1; d < distanceCounts.length; d++) {
+                if (distanceCounts[d] > 0) {
+                    return d;
+                }
+            }
+            return 0;
+        }
+    }
+
+    private final Map<Ticket, TicketState> states = new IdentityHashMap<>();
+    // Number -> (ticket, pattern) pairs that number would complete
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final Set<NearWin>[] completing = new Set[TicketIndex.MAX_NUMBER + 1];
+    // Tickets with an open pattern, closest first
+    private final TreeSet<TicketState> ranking = new TreeSet<>((a, b) -> {
+        if (a.closest != b.closest) {
+            return Integer.compare(a.closest, b.closest);
+        }
+        return Integer.compare(a.position, b.position);
+    });
+    private final long enabledPatterns;
+    private long activePatterns;
+
+    public NearWinTracker(List<Ticket> tickets, long enabledPatterns) {
+        for (int n = 1; n <= TicketIndex.MAX_NUMBER; n++) {
+            completing[n] = new HashSet<>();
+        }
+        int patternCount = PatternRegistry.getDefault().size();
+        this.enabledPatterns = enabledPatterns;
+        this.activePatterns = enabledPatterns;
+        for (int i = 0; i < tickets.size(); i++) {
+            Ticket ticket = tickets.get(i);
+            TicketState state = new TicketState(ticket, i, patternCount, enabledPatterns);
+            states.put(ticket, state);
+            for (int p = 0; p < patternCount; p++) {
+                if (state.remaining[p] == 1) {
+                    indexNearWin(state, p);
+                }
+            }
+            rerank(state);
+        }
+    }
+
+    @Override
+    public void onCellMarked(Ticket ticket, int cell) {
+        TicketState state = states.get(ticket);
+        if (state == null) {
+            return;
+        }
+        long patterns = state.cellPatterns[cell] & activePatterns;
+        boolean changed = false;
+        while (patterns != 0) {
+            int p = Long.numberOfTrailingZeros(patterns);
+            patterns &= patterns - 1;
+            int before = state.remaining[p];
+            if (before == 0) {
+                continue;
+            }
+            state.remaining[p] = before - 1;
+            state.distanceCounts[before]--;
+            if (before > 1) {
+                state.distanceCounts[before - 1]++;
+            }
+            if (before == 2) {
+                indexNearWin(state, p);
+            } else if (before == 1) {
+                unindexNearWin(state, p);
+            }
+            changed = true;
+        }
+        if (changed) {
+            rerank(state);
+        }
+    }
+
+    /**
+     * Reverses onCellMarked when a call is undone. The distance is recounted
+     * from the ticket's marks, since a pattern needing fewer cells than it
+     * covers stays at 0 however many extra cells were marked.
+     */
+    @Override
+    public void onCellUnmarked(Ticket ticket, int cell) {
+        TicketState state = states.get(ticket);
+        if (state == null) {
+            return;
+        }
+        long patterns = state.cellPatterns[cell] & activePatterns;
+        int marked = ticket.getMarkedMask();
+        boolean changed = false;
+        while (patterns != 0) {
+            int p = Long.numberOfTrailingZeros(patterns);
+            patterns &= patterns - 1;
+            int before = state.remaining[p];
+            int after = Math.max(0, ticket.getPatternRequired(p)
+                    - Integer.bitCount(marked & ticket.getPatternMask(p)));
+            if (after == before) {
+                continue;
+            }
+            state.remaining[p] = after;
+            if (before > 0) {
+                state.distanceCounts[before]--;
+            }
+            state.distanceCounts[after]++;
+            if (before == 1) {
+                unindexNearWin(state, p);
+            } else if (after == 1) {
+                indexNearWin(state, p);
+            }
+            changed = true;
+        }
+        if (changed) {
+            rerank(state);
+        }
+    }
+
+    /**
+     * Stops tracking a pattern once its prize has been claimed
+     */
+    public void closePattern(int pattern) {
+        if ((activePatterns & (1L << pattern)) == 0) {
+            return;
+        }
+        activePatterns &= ~(1L << pattern);
+        for (TicketState state : states.values()) {
+            int remaining = state.remaining[pattern];
+            if (remaining == 0) {
+                continue;
+            }
+            if (remaining == 1) {
+                unindexNearWin(state, pattern);
+            }
+            state.distanceCounts[remaining]--;
+            state.remaining[pattern] = 0;
+            rerank(state);
+        }
+    }
+
+    /**
+     * Resumes tracking a closed pattern, recounting every ticket's distance
+     * to it from the marks
+     */
+    public void reopenPattern(int pattern) {
+        if ((enabledPatterns & ~activePatterns & (1L << pattern)) == 0) {
+            return;
+        }
+        activePatterns |= 1L << pattern;
+        for (TicketState state : states.values()) {
+            Ticket ticket = state.ticket;
+            int required = ticket.getPatternRequired(pattern);
+            if (required == WinningPattern.UNREACHABLE) {
+                continue;
+            }
+            int remaining = Math.max(0, required
+                    - Integer.bitCount(ticket.getMarkedMask() & ticket.getPatternMask(pattern)));
+            if (remaining == 0) {
+                continue;
+            }
+            state.remaining[pattern] = remaining;
+            state.distanceCounts[remaining]++;
+            if (remaining == 1) {
+                indexNearWin(state, pattern);
+            }
+            rerank(state);
+        }
+    }
+
+    @Override
+    public void onPatternClosed(int pattern) {
+        closePattern(pattern);
+    }
+
+    @Override
+    public void onPatternReopened(int pattern) {
+        reopenPattern(pattern);
+    }
+
+    /**
+     * Returns the (ticket, pattern) pairs the number would complete if called next
+     */
+    public List<NearWin> getCompletedBy(int number) {
+        if (number < 1 || number > TicketIndex.MAX_NUMBER) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(completing[number]);
+    }
+
+    /**
+     * Returns up to count tickets closest to winning any open prize
+     */
+    public List<Ticket> getClosestTickets(int count) {
+        List<Ticket> closest = new ArrayList<>(Math.min(count, ranking.size()));
+        for (TicketState state : ranking) {
+            if (closest.size() == count) {
+                break;
+            }
+            closest.add(state.ticket);
+        }
+        return closest;
+    }
+
+    /**
+     * Returns how many numbers the ticket still needs for its closest open
+     * prize, or 0 if it has none
+     */
+    public int getDistance(Ticket ticket) {
+        TicketState state = states.get(ticket);
+        return state == null ? 0 : state.closest;
+    }
+
+    /**
+     * Returns the open patterns the ticket is exactly distance numbers away from
+     */
+    public List<Integer> getPatternsAtDistance(Ticket ticket, int distance) {
+        List<Integer> patterns = new ArrayList<>();
+        TicketState state = states.get(ticket);
+        if (state == null || distance <= 0) {
+            return patterns;
+        }
+        for (int p = 0; p < state.remaining.length; p++) {
+            if (state.remaining[p] == distance) {
+                patterns.add(p);
+            }
+        }
+        return patterns;
+    }
+
+    /**
+     * Returns the unmarked numbers that count towards the pattern on the ticket
+     */
+    public static int[] getOutstandingNumbers(Ticket ticket, int pattern) {
+        int outstanding = ticket.getPatternMask(pattern) & ~ticket.getMarkedMask();
+        int[] numbers = new int[Integer.bitCount(outstanding)];
+        int i = 0;
+        for (int bits = outstanding; bits != 0; bits &= bits - 1) {
+            numbers[i++] = ticket.getCell(Integer.numberOfTrailingZeros(bits));
+        }
+        return numbers;
+    }
+
+    private void indexNearWin(TicketState state, int pattern) {
+        NearWin nearWin = new NearWin(state.ticket, state.position, pattern,
+                getOutstandingNumbers(state.ticket, pattern));
+        state.nearWins[pattern] = nearWin;
+        for (int number : nearWin.numbers) {
+            completing[number].add(nearWin);
+        }
+    }
+
+    private void unindexNearWin(TicketState state, int pattern) {
+        NearWin nearWin = state.nearWins[pattern];
+        if (nearWin == null) {
+            return;
+        }
+        state.nearWins[pattern] = null;
+        for (int number : nearWin.numbers) {
+            completing[number].remove(nearWin);
+        }
+    }
+
+    // Moves the ticket to its new place in the ranking if its distance changed
+    private void rerank(TicketState state) {
+        int closest = state.computeClosest();
+        if (closest == state.closest) {
+            return;
+        }
+        if (state.closest > 0) {
+            ranking.remove(state);
+        }
+        state.closest = closest;
+        if (closest > 0) {
+            ranking.add(state);
+        }
+    }
+}
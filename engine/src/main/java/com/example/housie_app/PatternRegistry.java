@@ -0,0 +1,185 @@
+package com.example.housie_app;
+
+import com.example.housie_app.WinningPattern.Category;
+import com.example.housie_app.WinningPattern.Selector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Catalogue of the winning patterns in play. Patterns are identified by their
+ * registration index, which is also their bit in pattern bitsets, so the
+ * registry holds at most 64 patterns.
+ */
+public class PatternRegistry {
+    public static final int MAX_PATTERNS = 64;
+
+    private static PatternRegistry defaultRegistry;
+
+    private volatile WinningPattern[] patterns = new WinningPattern[0];
+
+    public static synchronized PatternRegistry getDefault() {
+        if (defaultRegistry == null) {
+            defaultRegistry = new PatternRegistry();
+            defaultRegistry.registerStandardPatterns();
+        }
+        return defaultRegistry;
+    }
+
+    /**
+     * Adds a pattern (e.g. a seasonal house rule) and returns its index
+     */
+    public synchronized int register(WinningPattern pattern) {
+        if (indexOf(pattern.getName()) >= 0) {
+            throw new IllegalArgumentException("Pattern already registered: " + pattern.getName());
+        }
+        if (patterns.length >= MAX_PATTERNS) {
+            throw new IllegalStateException("Cannot register more than " + MAX_PATTERNS + " patterns");
+        }
+        WinningPattern[] updated = Arrays.copyOf(patterns, patterns.length + 1);
+        updated[patterns.length] = pattern;
+        patterns = updated;
+        return patterns.length - 1;
+    }
+
+    /**
+     * Number of registered patterns; it only grows, so it doubles as a version
+     */
+    public int size() {
+        return patterns.length;
+    }
+
+    public WinningPattern get(int index) {
+        return patterns[index];
+    }
+
+    public int indexOf(String name) {
+        WinningPattern[] current = patterns;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i].getName().equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public List<WinningPattern> getPatterns() {
+        return Collections.unmodifiableList(Arrays.asList(patterns));
+    }
+
+    public List<WinningPattern> getPatterns(Category category) {
+        List<WinningPattern> result = new ArrayList<>();
+        for (WinningPattern pattern : patterns) {
+            if (pattern.getCategory() == category) {
+                result.add(pattern);
+            }
+        }
+        return result;
+    }
+
+    private void registerStandardPatterns() {
+        // Basic patterns
+        register(WinningPattern.builder("Top Line").emoji("🥇").category(Category.BASIC)
+                .description("All numbers in first row").rows(0).build());
+        register(WinningPattern.builder("Centre Line").emoji("🎯").category(Category.BASIC)
+                .description("All numbers in second row").rows(1).build());
+        register(WinningPattern.builder("Bottom Line").emoji("🏁").category(Category.BASIC)
+                .description("All numbers in third row").rows(2).build());
+        register(WinningPattern.builder("Four Corners").emoji("🔹").category(Category.BASIC)
+                .description("The four corner numbers")
+                .select(Selector.position(0, 0), Selector.position(0, Ticket.COLS - 1),
+                        Selector.position(2, 0), Selector.position(2, Ticket.COLS - 1))
+                .build());
+        register(WinningPattern.builder("Full House").emoji("🏆").category(Category.BASIC)
+                .description("All numbers on ticket").rows(0, 1, 2).build());
+
+        // Number range patterns
+        register(WinningPattern.builder("Breakfast").emoji("🍳").category(Category.RANGE)
+                .description("All numbers 1-30").select(Selector.range(1, 30)).build());
+        register(WinningPattern.builder("Lunch").emoji("🍔").category(Category.RANGE)
+                .description("All numbers 31-60").select(Selector.range(31, 60)).build());
+        register(WinningPattern.builder("Dinner").emoji("🍽️").category(Category.RANGE)
+                .description("All numbers 61-90").select(Selector.range(61, 90)).build());
+        register(WinningPattern.builder("Straight Brunch").emoji("🍽️").category(Category.RANGE)
+                .description("All numbers 1-60").select(Selector.range(1, 60)).build());
+        register(WinningPattern.builder("Reverse Brunch").emoji("🍝").category(Category.RANGE)
+                .description("All numbers 31-90").select(Selector.range(31, 90)).build());
+
+        // Position-based patterns
+        register(WinningPattern.builder("Twins").emoji("👯").category(Category.POSITION)
+                .description("First two numbers in all rows")
+                .select(Selector.position(0, 0), Selector.position(0, 1),
+                        Selector.position(1, 0), Selector.position(1, 1),
+                        Selector.position(2, 0), Selector.position(2, 1))
+                .build());
+        register(WinningPattern.builder("Reverse Twins").emoji("👯‍♂️").category(Category.POSITION)
+                .description("Last two numbers in all rows")
+                .select(Selector.last(0, 2), Selector.last(1, 2), Selector.last(2, 2))
+                .build());
+        register(WinningPattern.builder("Triplets").emoji("👨‍👩‍👦").category(Category.POSITION)
+                .description("First three numbers in all rows")
+                .select(Selector.first(0, 3), Selector.first(1, 3), Selector.first(2, 3))
+                .build());
+        register(WinningPattern.builder("Reverse Triplets").emoji("👨‍👩‍👧").category(Category.POSITION)
+                .description("Last three numbers in all rows")
+                .select(Selector.last(0, 3), Selector.last(1, 3), Selector.last(2, 3))
+                .build());
+        register(WinningPattern.builder("Ladder").emoji("🪜").category(Category.POSITION)
+                .description("First 1, 2, and 3 numbers in rows")
+                .select(Selector.firstExactly(0, 1), Selector.firstExactly(1, 2), Selector.firstExactly(2, 3))
+                .build());
+        register(WinningPattern.builder("Reverse Ladder").emoji("↕️").category(Category.POSITION)
+                .description("Last 3, 2, and 1 numbers in rows")
+                .select(Selector.lastExactly(0, 3), Selector.lastExactly(1, 2), Selector.lastExactly(2, 1))
+                .build());
+        register(WinningPattern.builder("Lover's Lane").emoji("💑").category(Category.POSITION)
+                .description("First number in top and middle rows + all bottom row")
+                .select(Selector.first(0, 1), Selector.first(1, 1), Selector.row(2))
+                .build());
+        register(WinningPattern.builder("Reverse Lover's Lane").emoji("💏").category(Category.POSITION)
+                .description("All top row + last number in middle and bottom rows")
+                .select(Selector.row(0), Selector.last(1, 1), Selector.last(2, 1))
+                .build());
+        register(WinningPattern.builder("Tennis").emoji("🎾").category(Category.POSITION)
+                .description("Middle number in top and bottom rows + all middle row")
+                .select(Selector.middle(0, 1), Selector.row(1), Selector.middle(2, 1))
+                .build());
+        register(WinningPattern.builder("Six Corners").emoji("🔶").category(Category.BASIC)
+                .description("First and last number of each row")
+                .select(Selector.position(0, 0), Selector.position(0, Ticket.COLS - 1),
+                        Selector.position(1, 0), Selector.position(1, Ticket.COLS - 1),
+                        Selector.position(2, 0), Selector.position(2, Ticket.COLS - 1))
+                .build());
+        register(WinningPattern.builder("Stumps").emoji("🏏").category(Category.POSITION)
+                .description("Middle three numbers of each row")
+                .select(Selector.middle(0, 3), Selector.middle(1, 3), Selector.middle(2, 3))
+                .build());
+        register(WinningPattern.builder("Round the World").emoji("🌎").category(Category.POSITION)
+                .description("All top/bottom rows + first/last number in middle row")
+                .select(Selector.row(0), Selector.row(2), Selector.first(1, 1), Selector.last(1, 1))
+                .build());
+        register(WinningPattern.builder("Letter H").emoji("Ⓗ").category(Category.POSITION)
+                .description("First/last numbers in top/bottom rows + all middle row")
+                .select(Selector.first(0, 1), Selector.last(0, 1), Selector.row(1),
+                        Selector.first(2, 1), Selector.last(2, 1))
+                .build());
+
+        // Quick patterns
+        register(WinningPattern.builder("Quick-12").emoji("⏱️").category(Category.QUICK)
+                .description("Any 12 numbers").any(12).build());
+        register(WinningPattern.builder("Quick-13").emoji("⌚").category(Category.QUICK)
+                .description("Any 13 numbers").any(13).build());
+        register(WinningPattern.builder("Quick-14").emoji("⏰").category(Category.QUICK)
+                .description("Any 14 numbers").any(14).build());
+
+        // Line combinations
+        register(WinningPattern.builder("Top & Centre Line").emoji("⬆️").category(Category.LINES)
+                .description("Both top and middle rows").rows(0, 1).build());
+        register(WinningPattern.builder("Centre & Bottom Line").emoji("⬇️").category(Category.LINES)
+                .description("Both middle and bottom rows").rows(1, 2).build());
+        register(WinningPattern.builder("Top & Bottom Line").emoji("↕️").category(Category.LINES)
+                .description("Both top and bottom rows").rows(0, 2).build());
+    }
+}
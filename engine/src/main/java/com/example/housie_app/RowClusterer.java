@@ -0,0 +1,116 @@
+package com.example.housie_app;
+
+/**
+ * Groups recognized elements into printed rows by their vertical centres,
+ * following the tilt of the photo. Shared by the ticket parser and the sheet
+ * segmenter; the arrays are kept between calls. Not thread-safe.
+ */
+final class RowClusterer {
+    // Vertical gap, in element heights, that starts a new row
+    private static final float ROW_GAP = 0.6f;
+    // Steepest row slope believed, about 6 degrees
+    private static final float MAX_SKEW = 0.1f;
+
+    // Elements sorted down the page; cluster c is order[clusterStart[c]] up to order[clusterStart[c + 1] - 1]
+    final int[] order;
+    final int[] clusterStart;
+
+    private final float[] rowY;
+    private final float[] slopes;
+    private float skew;
+
+    RowClusterer(int capacity) {
+        order = new int[capacity];
+        clusterStart = new int[capacity + 1];
+        rowY = new float[capacity];
+        slopes = new float[capacity];
+    }
+
+    /**
+     * Clusters the first count elements and returns the number of rows
+     */
+    int cluster(float[] centreX, float[] centreY, float[] heights, int count) {
+        if (count == 0) {
+            clusterStart[0] = 0;
+            skew = 0;
+            return 0;
+        }
+        float totalHeight = 0;
+        for (int e = 0; e < count; e++) {
+            totalHeight += heights[e];
+        }
+        float gap = ROW_GAP * totalHeight / count;
+        skew = estimateSkew(centreX, centreY, count);
+
+        // Sort by height on the skewed row line and split where the gap is large
+        for (int e = 0; e < count; e++) {
+            order[e] = e;
+            rowY[e] = centreY[e] - skew * centreX[e];
+        }
+        for (int i = 1; i < count; i++) {
+            int e = order[i];
+            int k = i - 1;
+            while (k >= 0 && rowY[order[k]] > rowY[e]) {
+                order[k + 1] = order[k];
+                k--;
+            }
+            order[k + 1] = e;
+        }
+
+        int clusters = 0;
+        clusterStart[clusters++] = 0;
+        for (int i = 1; i < count; i++) {
+            if (rowY[order[i]] - rowY[order[i - 1]] > gap) {
+                clusterStart[clusters++] = i;
+            }
+        }
+        clusterStart[clusters] = count;
+        return clusters;
+    }
+
+    /**
+     * Slope of the rows, down per unit across, valid after cluster()
+     */
+    float getSkew() {
+        return skew;
+    }
+
+    /**
+     * Height of an element on its skewed row line, valid after cluster()
+     */
+    float getRowY(int element) {
+        return rowY[element];
+    }
+
+    // Each element's most level neighbour to its right is almost always in
+    // the same row, so the median slope to those neighbours follows the rows
+    private float estimateSkew(float[] centreX, float[] centreY, int count) {
+        int n = 0;
+        for (int e = 0; e < count; e++) {
+            int level = -1;
+            float levelDy = Float.MAX_VALUE;
+            for (int f = 0; f < count; f++) {
+                float dy = Math.abs(centreY[f] - centreY[e]);
+                if (centreX[f] > centreX[e] && dy < levelDy) {
+                    level = f;
+                    levelDy = dy;
+                }
+            }
+            if (level < 0) {
+                continue;
+            }
+            float slope = (centreY[level] - centreY[e]) / (centreX[level] - centreX[e]);
+            if (Math.abs(slope) <= MAX_SKEW) {
+                // Insertion into the sorted slopes
+                int k = n - 1;
+                while (k >= 0 && slopes[k] > slope) {
+                    slopes[k + 1] = slopes[k];
+                    k--;
+                }
+                slopes[k + 1] = slope;
+                n++;
+            }
+        }
+        return n == 0 ? 0f : slopes[n / 2];
+    }
+}
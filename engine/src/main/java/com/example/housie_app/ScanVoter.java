@@ -0,0 +1,159 @@
+package com.example.housie_app;
+
+import java.util.Arrays;
+
+/**
+ * Combines the readings of consecutive scan frames cell by cell. Every cell
+ * keeps a few candidate values (0 for empty) weighted by the parser's
+ * confidence, and has converged once its leading value holds most of the
+ * weight. A digit misread in one frame is outvoted by the frames around it
+ * instead of spoiling the scan.
+ *
+ * Nothing is allocated after construction. Not thread-safe.
+ */
+public class ScanVoter {
+    static final int CANDIDATES = 4;
+    // Share of a cell's weight the leading value needs to converge
+    static final float MIN_SHARE = 0.75f;
+    // Weight the leading value needs, about two confident readings
+    static final float MIN_WEIGHT = 1.5f;
+
+    private final int frameBudget;
+    private final byte[] values = new byte[Ticket.CELLS * CANDIDATES];
+    private final float[] weights = new float[Ticket.CELLS * CANDIDATES];
+    private final float[] totals = new float[Ticket.CELLS];
+    private int frames;
+
+    /**
+     * @param frameBudget frames after which the vote should be settled,
+     *                    converged or not
+     */
+    public ScanVoter(int frameBudget) {
+        this.frameBudget = frameBudget;
+    }
+
+    public void reset() {
+        Arrays.fill(weights, 0f);
+        Arrays.fill(totals, 0f);
+        frames = 0;
+    }
+
+    /**
+     * Adds one frame's cells and per-cell confidences. A frame that mostly
+     * disagrees with the vote so far shows a different ticket and starts a new
+     * vote; returns true in that case.
+     */
+    public boolean addFrame(byte[] cells, float[] confidence) {
+        boolean restarted = false;
+        if (frames > 0 && !matchesConsensus(cells)) {
+            reset();
+            restarted = true;
+        }
+        for (int cell = 0; cell < Ticket.CELLS; cell++) {
+            vote(cell, cells[cell], confidence[cell]);
+        }
+        frames++;
+        return restarted;
+    }
+
+    private boolean matchesConsensus(byte[] cells) {
+        int numbers = 0;
+        int agreeing = 0;
+        for (int cell = 0; cell < Ticket.CELLS; cell++) {
+            if (cells[cell] != 0) {
+                numbers++;
+                if (cells[cell] == getValue(cell)) {
+                    agreeing++;
+                }
+            }
+        }
+        return 2 * agreeing >= numbers;
+    }
+
+    private void vote(int cell, byte value, float weight) {
+        if (weight <= 0) {
+            return;
+        }
+        int base = cell * CANDIDATES;
+        int weakest = base;
+        for (int i = base; i < base + CANDIDATES; i++) {
+            if (weights[i] > 0 && values[i] == value) {
+                weights[i] += weight;
+                totals[cell] += weight;
+                return;
+            }
+            if (weights[i] < weights[weakest]) {
+                weakest = i;
+            }
+        }
+        // A new candidate pushes out the weakest one
+        totals[cell] += weight - weights[weakest];
+        values[weakest] = value;
+        weights[weakest] = weight;
+    }
+
+    private int leader(int cell) {
+        int base = cell * CANDIDATES;
+        int best = base;
+        for (int i = base + 1; i < base + CANDIDATES; i++) {
+            if (weights[i] > weights[best]) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Leading value of a cell, 0 for empty or not read yet
+     */
+    public int getValue(int cell) {
+        int best = leader(cell);
+        return weights[best] > 0 ? values[best] : 0;
+    }
+
+    /**
+     * Share of the cell's weight behind its leading value, from 0 to 1
+     */
+    public float getAgreement(int cell) {
+        return totals[cell] > 0 ? weights[leader(cell)] / totals[cell] : 0f;
+    }
+
+    public boolean isConverged(int cell) {
+        float leading = weights[leader(cell)];
+        return leading >= MIN_WEIGHT && leading >= MIN_SHARE * totals[cell];
+    }
+
+    /**
+     * Bitmask of the cells that haven't converged yet
+     */
+    public int getUncertainCells() {
+        int uncertain = 0;
+        for (int cell = 0; cell < Ticket.CELLS; cell++) {
+            if (!isConverged(cell)) {
+                uncertain |= 1 << cell;
+            }
+        }
+        return uncertain;
+    }
+
+    public boolean isConverged() {
+        return getUncertainCells() == 0;
+    }
+
+    public boolean isBudgetUsed() {
+        return frames >= frameBudget;
+    }
+
+    public int getFrames() {
+        return frames;
+    }
+
+    /**
+     * Writes the leading value of every cell, row-major
+     */
+    public void getConsensus(byte[] out) {
+        for (int cell = 0; cell < Ticket.CELLS; cell++) {
+            out[cell] = (byte) getValue(cell);
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.housie_app;
+
+/**
+ * Splits the numbers recognized on a printed sheet into its tickets, so each
+ * can be handed to its own TicketLayoutParser. Printed rows are clustered
+ * down the page. A row is cut wherever the decades stop rising, because
+ * within one ticket row they always rise, which separates tickets printed
+ * side by side. The pieces are then clustered across the page by where their
+ * ticket's first column lies, so a piece missing from one row doesn't move
+ * the others into the wrong column of tickets. Each column of tickets is
+ * stacked three rows at a time, with a wide vertical gap also starting a new
+ * ticket. Short row pieces, such as ticket numbers in headers, are dropped.
+ *
+ * Not thread-safe; segment once, then feed() may be called from several
+ * threads as it only reads.
+ */
+public class SheetSegmenter {
+    public static final int MAX_ELEMENTS = 512;
+
+    // Numbers a row piece needs to be part of a ticket rather than header text
+    private static final int MIN_ROW_NUMBERS = 3;
+    // Gap between rows, relative to the usual row pitch, that always separates tickets
+    private static final float TICKET_GAP = 1.5f;
+    // Gap between piece origins, in cell widths, that separates columns of tickets
+    private static final float COLUMN_GAP = Ticket.COLS / 2f;
+
+    private final int[] values = new int[MAX_ELEMENTS];
+    private final int[] lefts = new int[MAX_ELEMENTS];
+    private final int[] tops = new int[MAX_ELEMENTS];
+    private final int[] rights = new int[MAX_ELEMENTS];
+    private final int[] bottoms = new int[MAX_ELEMENTS];
+    private final float[] centreX = new float[MAX_ELEMENTS];
+    private final float[] centreY = new float[MAX_ELEMENTS];
+    private final float[] heights = new float[MAX_ELEMENTS];
+    private final float[] confidences = new float[MAX_ELEMENTS];
+    private int count;
+    private int ticketCount;
+
+    // Scratch space reused by segment()
+    private final RowClusterer rowClusterer = new RowClusterer(MAX_ELEMENTS);
+    private final int[] ticketOf = new int[MAX_ELEMENTS];
+    private final int[] pieceOf = new int[MAX_ELEMENTS];
+    private final int[] pieceColumn = new int[MAX_ELEMENTS];
+    private final float[] pieceY = new float[MAX_ELEMENTS];
+    private final float[] pieceOrigin = new float[MAX_ELEMENTS];
+    private final float[] pieceCellWidth = new float[MAX_ELEMENTS];
+    private final int[] pieceOrder = new int[MAX_ELEMENTS];
+    private final int[] pieceTicket = new int[MAX_ELEMENTS];
+    private final float[] gaps = new float[MAX_ELEMENTS];
+
+    public void reset() {
+        count = 0;
+        ticketCount = 0;
+    }
+
+    /**
+     * Adds one recognized word with its bounding box; anything but a number
+     * from 1 to 90 is ignored. Returns true if the word was kept.
+     */
+    public boolean addElement(CharSequence text, int left, int top, int right, int bottom, float confidence) {
+        int value = TicketLayoutParser.parseNumber(text);
+        if (value == 0 || count == MAX_ELEMENTS) {
+            return false;
+        }
+        values[count] = value;
+        lefts[count] = left;
+        tops[count] = top;
+        rights[count] = right;
+        bottoms[count] = bottom;
+        centreX[count] = (left + right) * 0.5f;
+        centreY[count] = (top + bottom) * 0.5f;
+        heights[count] = Math.max(1, bottom - top);
+        confidences[count] = confidence;
+        count++;
+        return true;
+    }
+
+    /**
+     * Assigns the added numbers to tickets and returns how many were found,
+     * numbered column by column, top to bottom
+     */
+    public int segment() {
+        int clusters = rowClusterer.cluster(centreX, centreY, heights, count);
+        int[] order = rowClusterer.order;
+        int[] clusterStart = rowClusterer.clusterStart;
+
+        // Cut every printed row into pieces of rising decades
+        float skew = rowClusterer.getSkew();
+        int pieces = 0;
+        for (int c = 0; c < clusters; c++) {
+            int from = clusterStart[c];
+            int to = clusterStart[c + 1];
+            sortByX(order, from, to);
+            int first = from;
+            for (int i = from + 1; i <= to; i++) {
+                boolean cut = i == to || TicketLayoutParser.decadeColumn(values[order[i]])
+                        <= TicketLayoutParser.decadeColumn(values[order[i - 1]]);
+                if (!cut) {
+                    continue;
+                }
+                int piece = -1;
+                if (i - first >= MIN_ROW_NUMBERS) {
+                    piece = pieces++;
+                    float sumY = 0;
+                    for (int k = first; k < i; k++) {
+                        sumY += rowClusterer.getRowY(order[k]);
+                    }
+                    pieceY[piece] = sumY / (i - first);
+                    locatePiece(piece, order, first, i, skew);
+                }
+                for (int k = first; k < i; k++) {
+                    pieceOf[order[k]] = piece;
+                }
+                first = i;
+            }
+        }
+        int columns = clusterColumns(pieces);
+
+        // Stack each column of tickets three rows at a time
+        ticketCount = 0;
+        for (int column = 0; column < columns; column++) {
+            float pitch = medianPitch(column, pieces);
+            int rows = 0;
+            float lastY = 0;
+            for (int piece = 0; piece < pieces; piece++) {
+                if (pieceColumn[piece] != column) {
+                    continue;
+                }
+                if (rows == 0 || rows == Ticket.ROWS || pieceY[piece] - lastY > TICKET_GAP * pitch) {
+                    ticketCount++;
+                    rows = 0;
+                }
+                pieceTicket[piece] = ticketCount - 1;
+                rows++;
+                lastY = pieceY[piece];
+            }
+        }
+
+        for (int e = 0; e < count; e++) {
+            ticketOf[e] = pieceOf[e] < 0 ? -1 : pieceTicket[pieceOf[e]];
+        }
+        return ticketCount;
+    }
+
+    public int getTicketCount() {
+        return ticketCount;
+    }
+
+    /**
+     * Hands the numbers of one ticket to a parser, replacing what it held
+     */
+    public void feed(int ticket, TicketLayoutParser parser) {
+        parser.reset();
+        for (int e = 0; e < count; e++) {
+            if (ticketOf[e] == ticket) {
+                parser.addNumber(values[e], lefts[e], tops[e], rights[e], bottoms[e], confidences[e]);
+            }
+        }
+    }
+
+    // Fits the piece's numbers to x = origin + decade column * cell width, with
+    // x measured along the rows so a tilted photo doesn't drift down the page
+    private void locatePiece(int piece, int[] order, int from, int to, float skew) {
+        int firstColumn = TicketLayoutParser.decadeColumn(values[order[from]]);
+        int lastColumn = TicketLayoutParser.decadeColumn(values[order[to - 1]]);
+        float firstX = centreX[order[from]] + skew * centreY[order[from]];
+        float lastX = centreX[order[to - 1]] + skew * centreY[order[to - 1]];
+        float cellWidth = (lastX - firstX) / (lastColumn - firstColumn);
+        float sumOrigin = 0;
+        for (int k = from; k < to; k++) {
+            int e = order[k];
+            sumOrigin += centreX[e] + skew * centreY[e] - TicketLayoutParser.decadeColumn(values[e]) * cellWidth;
+        }
+        pieceOrigin[piece] = sumOrigin / (to - from);
+        pieceCellWidth[piece] = cellWidth;
+    }
+
+    // Sorts the pieces by origin and splits them where the gap is large,
+    // numbering the columns of tickets left to right
+    private int clusterColumns(int pieces) {
+        if (pieces == 0) {
+            return 0;
+        }
+        for (int i = 0; i < pieces; i++) {
+            int piece = i;
+            int k = i - 1;
+            while (k >= 0 && pieceOrigin[pieceOrder[k]] > pieceOrigin[piece]) {
+                pieceOrder[k + 1] = pieceOrder[k];
+                k--;
+            }
+            pieceOrder[k + 1] = piece;
+        }
+        float gap = COLUMN_GAP * median(pieceCellWidth, pieces);
+        int column = 0;
+        pieceColumn[pieceOrder[0]] = 0;
+        for (int i = 1; i < pieces; i++) {
+            if (pieceOrigin[pieceOrder[i]] - pieceOrigin[pieceOrder[i - 1]] > gap) {
+                column++;
+            }
+            pieceColumn[pieceOrder[i]] = column;
+        }
+        return column + 1;
+    }
+
+    private float median(float[] source, int n) {
+        for (int i = 0; i < n; i++) {
+            float value = source[i];
+            int k = i - 1;
+            while (k >= 0 && gaps[k] > value) {
+                gaps[k + 1] = gaps[k];
+                k--;
+            }
+            gaps[k + 1] = value;
+        }
+        return gaps[n / 2];
+    }
+
+    // Median distance between consecutive rows of one column of tickets
+    private float medianPitch(int column, int pieces) {
+        int n = 0;
+        float lastY = Float.NaN;
+        for (int piece = 0; piece < pieces; piece++) {
+            if (pieceColumn[piece] != column) {
+                continue;
+            }
+            if (!Float.isNaN(lastY)) {
+                float gap = pieceY[piece] - lastY;
+                int k = n - 1;
+                while (k >= 0 && gaps[k] > gap) {
+                    gaps[k + 1] = gaps[k];
+                    k--;
+                }
+                gaps[k + 1] = gap;
+                n++;
+            }
+            lastY = pieceY[piece];
+        }
+        // With no pair to measure, nothing counts as a wide gap
+        return n == 0 ? Float.MAX_VALUE : gaps[n / 2];
+    }
+
+    private void sortByX(int[] order, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            int e = order[i];
+            int k = i - 1;
+            while (k >= from && centreX[order[k]] > centreX[e]) {
+                order[k + 1] = order[k];
+                k--;
+            }
+            order[k + 1] = e;
+        }
+    }
+}
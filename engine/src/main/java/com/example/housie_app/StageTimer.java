@@ -0,0 +1,100 @@
+package com.example.housie_app;
+
+import java.util.Locale;
+
+/**
+ * Times the stages of a repeated pipeline, e.g. the scanner's per-frame work.
+ * Each frame calls start(), lap(stage) as every stage finishes and finish()
+ * once it is complete; the listener then sees that frame's times and the
+ * running averages. Frames that are abandoned halfway are simply not
+ * finished and don't count.
+ */
+public class StageTimer {
+
+    /**
+     * Hook called after every finished frame
+     */
+    public interface Listener {
+        void onFrameTimed(StageTimer timer);
+    }
+
+    private final String[] stages;
+    private final long[] frameNanos;
+    private final long[] totalNanos;
+    private int frames;
+    private long lastNanos;
+    private Listener listener;
+
+    public StageTimer(String... stages) {
+        this.stages = stages.clone();
+        this.frameNanos = new long[stages.length];
+        this.totalNanos = new long[stages.length];
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public void start() {
+        for (int i = 0; i < frameNanos.length; i++) {
+            frameNanos[i] = 0;
+        }
+        lastNanos = System.nanoTime();
+    }
+
+    /**
+     * Charges the time since the previous lap (or start) to the given stage
+     */
+    public void lap(int stage) {
+        long now = System.nanoTime();
+        frameNanos[stage] += now - lastNanos;
+        lastNanos = now;
+    }
+
+    public void finish() {
+        for (int i = 0; i < frameNanos.length; i++) {
+            totalNanos[i] += frameNanos[i];
+        }
+        frames++;
+        if (listener != null) {
+            listener.onFrameTimed(this);
+        }
+    }
+
+    public int getStageCount() {
+        return stages.length;
+    }
+
+    public String getStageName(int stage) {
+        return stages[stage];
+    }
+
+    /**
+     * Time the stage took in the last finished frame
+     */
+    public double getMillis(int stage) {
+        return frameNanos[stage] / 1e6;
+    }
+
+    public double getAverageMillis(int stage) {
+        return frames == 0 ? 0 : totalNanos[stage] / 1e6 / frames;
+    }
+
+    public int getFrames() {
+        return frames;
+    }
+
+    /**
+     * Average per-stage times, e.g. "locate 1.1 ms, recognize 84.0 ms (30 frames)"
+     */
+    public String getSummary() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < stages.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(String.format(Locale.US, "%s %.1f ms", stages[i], getAverageMillis(i)));
+        }
+        return sb.append(" (").append(frames).append(" frames)").toString();
+    }
+}
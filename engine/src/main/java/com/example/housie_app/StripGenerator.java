@@ -0,0 +1,256 @@
+package com.example.housie_app;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generates valid housie strips: six tickets that together hold 1-90 exactly
+ * once, with each column's numbers from its range (1-9, 10-19, ... 80-90),
+ * five numbers per row and one to three numbers per column of every ticket.
+ *
+ * Every step is constructive, so a strip never has to be retried:
+ * each ticket first gets one number per column, the remaining numbers are
+ * dealt greedily to the tickets needing the most (Gale-Ryser style), random
+ * balanced swaps then vary the column counts, and finally each ticket's
+ * columns are laid out over its rows, again largest first.
+ *
+ * The same seed always produces the same strips. Not thread-safe; use one
+ * generator per thread.
+ */
+public class StripGenerator {
+    public static final int TICKETS_PER_STRIP = 6;
+    public static final int NUMBERS_PER_TICKET = 15;
+    public static final int NUMBERS_PER_ROW = 5;
+    public static final int STRIP_CELLS = TICKETS_PER_STRIP * Ticket.CELLS;
+
+    private static final int MAX_PER_COLUMN = Ticket.ROWS;
+    private static final int SWAP_MOVES = 24;
+
+    private final SplittableRandom random;
+    private int stripCount;
+
+    // Scratch space reused for every strip
+    private final int[][] counts = new int[TICKETS_PER_STRIP][Ticket.COLS];
+    private final int[] demand = new int[TICKETS_PER_STRIP];
+    private final int[][] columnNumbers = new int[Ticket.COLS][];
+    private final int[] columnOrder = new int[Ticket.COLS];
+    private final int[] rowCapacity = new int[Ticket.ROWS];
+    private final int[] rowOrder = new int[Ticket.ROWS];
+    private final boolean[] occupied = new boolean[Ticket.CELLS];
+    private final int[] dealt = new int[Ticket.COLS];
+
+    public StripGenerator(long seed) {
+        this.random = new SplittableRandom(seed);
+        for (int j = 0; j < Ticket.COLS; j++) {
+            int first = columnFirst(j);
+            int last = columnLast(j);
+            columnNumbers[j] = new int[last - first + 1];
+            for (int n = first; n <= last; n++) {
+                columnNumbers[j][n - first] = n;
+            }
+        }
+    }
+
+    // Column 0 holds 1-9, column 8 holds 80-90, the rest hold ten numbers each
+    static int columnFirst(int col) {
+        return col == 0 ? 1 : col * 10;
+    }
+
+    static int columnLast(int col) {
+        return col == Ticket.COLS - 1 ? 90 : col * 10 + 9;
+    }
+
+    /**
+     * Writes one strip as six consecutive row-major ticket layouts
+     * (STRIP_CELLS bytes) starting at offset
+     */
+    public void nextStrip(byte[] out, int offset) {
+        assignColumnCounts();
+        dealNumbers(out, offset);
+        stripCount++;
+    }
+
+    /**
+     * Returns the next strip as six tickets with IDs "S<strip>-<ticket>"
+     */
+    public List<Ticket> nextStrip() {
+        byte[] layout = new byte[STRIP_CELLS];
+        int strip = stripCount + 1;
+        nextStrip(layout, 0);
+        List<Ticket> tickets = new ArrayList<>(TICKETS_PER_STRIP);
+        for (int t = 0; t < TICKETS_PER_STRIP; t++) {
+            byte[] cells = Arrays.copyOfRange(layout, t * Ticket.CELLS, (t + 1) * Ticket.CELLS);
+            tickets.add(new Ticket("S" + strip + "-" + (t + 1), cells, 0));
+        }
+        return tickets;
+    }
+
+    /**
+     * Returns count tickets, filled strip by strip
+     */
+    public List<Ticket> generate(int count) {
+        List<Ticket> tickets = new ArrayList<>(count);
+        while (tickets.size() < count) {
+            List<Ticket> strip = nextStrip();
+            tickets.addAll(strip.subList(0, Math.min(strip.size(), count - tickets.size())));
+        }
+        return tickets;
+    }
+
+    // Decides how many numbers of each column every ticket gets
+    private void assignColumnCounts() {
+        for (int t = 0; t < TICKETS_PER_STRIP; t++) {
+            for (int j = 0; j < Ticket.COLS; j++) {
+                counts[t][j] = 1;
+            }
+            demand[t] = NUMBERS_PER_TICKET - Ticket.COLS;
+        }
+
+        // Deal the rest of each column, largest column first, one number at a
+        // time to the ticket that still needs the most (random tie-break)
+        sortColumnsBySize();
+        for (int c = 0; c < Ticket.COLS; c++) {
+            int j = columnOrder[c];
+            for (int left = columnNumbers[j].length - TICKETS_PER_STRIP; left > 0; left--) {
+                int best = -1;
+                int ties = 0;
+                for (int t = 0; t < TICKETS_PER_STRIP; t++) {
+                    if (demand[t] == 0 || counts[t][j] == MAX_PER_COLUMN) {
+                        continue;
+                    }
+                    if (best < 0 || demand[t] > demand[best]) {
+                        best = t;
+                        ties = 1;
+                    } else if (demand[t] == demand[best] && random.nextInt(++ties) == 0) {
+                        best = t;
+                    }
+                }
+                counts[best][j]++;
+                demand[best]--;
+            }
+        }
+
+        // Move a number of column x from ticket a to b and one of column y from
+        // b to a; row and column totals are unchanged, so the strip stays valid
+        for (int move = 0; move < SWAP_MOVES; move++) {
+            int a = random.nextInt(TICKETS_PER_STRIP);
+            int b = random.nextInt(TICKETS_PER_STRIP);
+            int x = random.nextInt(Ticket.COLS);
+            int y = random.nextInt(Ticket.COLS);
+            if (a == b || x == y) {
+                continue;
+            }
+            if (counts[a][x] > 1 && counts[b][x] < MAX_PER_COLUMN
+                    && counts[b][y] > 1 && counts[a][y] < MAX_PER_COLUMN) {
+                counts[a][x]--;
+                counts[b][x]++;
+                counts[b][y]--;
+                counts[a][y]++;
+            }
+        }
+    }
+
+    private void sortColumnsBySize() {
+        for (int j = 0; j < Ticket.COLS; j++) {
+            columnOrder[j] = j;
+        }
+        // Insertion sort, largest first; only the end columns differ in size
+        for (int i = 1; i < Ticket.COLS; i++) {
+            int col = columnOrder[i];
+            int k = i - 1;
+            while (k >= 0 && columnNumbers[columnOrder[k]].length < columnNumbers[col].length) {
+                columnOrder[k + 1] = columnOrder[k];
+                k--;
+            }
+            columnOrder[k + 1] = col;
+        }
+    }
+
+    // Shuffles each column's numbers, hands them out by count and lays out rows
+    private void dealNumbers(byte[] out, int offset) {
+        for (int j = 0; j < Ticket.COLS; j++) {
+            int[] numbers = columnNumbers[j];
+            for (int i = numbers.length - 1; i > 0; i--) {
+                int k = random.nextInt(i + 1);
+                int swap = numbers[i];
+                numbers[i] = numbers[k];
+                numbers[k] = swap;
+            }
+        }
+
+        Arrays.fill(dealt, 0);
+        for (int t = 0; t < TICKETS_PER_STRIP; t++) {
+            int base = offset + t * Ticket.CELLS;
+            layoutRows(t);
+            for (int j = 0; j < Ticket.COLS; j++) {
+                // Numbers in a column read smallest first, top to bottom
+                int count = counts[t][j];
+                sortRange(columnNumbers[j], dealt[j], dealt[j] + count);
+                int taken = dealt[j];
+                for (int i = 0; i < Ticket.ROWS; i++) {
+                    int cell = Ticket.cellIndex(i, j);
+                    out[base + cell] = occupied[cell] ? (byte) columnNumbers[j][taken++] : 0;
+                }
+                dealt[j] += count;
+            }
+        }
+    }
+
+    // Marks which cells of ticket t hold a number: columns with the most
+    // numbers first, each into the rows with the most room left
+    private void layoutRows(int t) {
+        for (int i = 0; i < Ticket.ROWS; i++) {
+            rowCapacity[i] = NUMBERS_PER_ROW;
+        }
+        Arrays.fill(occupied, false);
+        for (int need = MAX_PER_COLUMN; need >= 1; need--) {
+            for (int j = 0; j < Ticket.COLS; j++) {
+                if (counts[t][j] != need) {
+                    continue;
+                }
+                orderRowsByCapacity();
+                for (int r = 0; r < need; r++) {
+                    int row = rowOrder[r];
+                    rowCapacity[row]--;
+                    occupied[Ticket.cellIndex(row, j)] = true;
+                }
+            }
+        }
+    }
+
+    private void orderRowsByCapacity() {
+        for (int i = 0; i < Ticket.ROWS; i++) {
+            rowOrder[i] = i;
+        }
+        // Random order first so equal capacities are broken randomly
+        for (int i = Ticket.ROWS - 1; i > 0; i--) {
+            int k = random.nextInt(i + 1);
+            int swap = rowOrder[i];
+            rowOrder[i] = rowOrder[k];
+            rowOrder[k] = swap;
+        }
+        for (int i = 1; i < Ticket.ROWS; i++) {
+            int row = rowOrder[i];
+            int k = i - 1;
+            while (k >= 0 && rowCapacity[rowOrder[k]] < rowCapacity[row]) {
+                rowOrder[k + 1] = rowOrder[k];
+                k--;
+            }
+            rowOrder[k + 1] = row;
+        }
+    }
+
+    private static void sortRange(int[] values, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            int value = values[i];
+            int k = i - 1;
+            while (k >= from && values[k] > value) {
+                values[k + 1] = values[k];
+                k--;
+            }
+            values[k + 1] = value;
+        }
+    }
+}
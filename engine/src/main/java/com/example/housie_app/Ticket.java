@@ -0,0 +1,277 @@
+package com.example.housie_app;
+
+import com.google.gson.annotations.JsonAdapter;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents a Housie ticket with a grid of numbers
+ * Standard housie ticket has 3 rows and 9 columns
+ * Each row has 5 numbers and 4 blank spaces
+ *
+ * Cells are stored row-major in a 27 byte array (0 represents an empty cell)
+ * and marks are kept as a single bitmask where bit (row * COLS + col) is set
+ * once that cell has been marked. Winning patterns from the PatternRegistry
+ * are compiled once per ticket layout into a cell mask, so each check is a
+ * single mask test. Every change to the numbers or marks bumps a version,
+ * and the last win result is cached against it so re-checking an unchanged
+ * ticket is free.
+ * Gson reads and writes tickets through TicketTypeAdapter.
+ */
+@JsonAdapter(TicketTypeAdapter.class)
+public class Ticket implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public static final int ROWS = 3;
+    public static final int COLS = 9;
+    public static final int CELLS = ROWS * COLS;
+
+    private String ticketId;
+    private byte[] cells;    // row-major cell numbers, 0 represents empty cell
+    private int markedMask;  // bit per cell that has been marked
+
+    // Compiled pattern masks, rebuilt lazily whenever the layout or registry changes
+    private transient int[] patternMasks;
+    private transient int[] patternRequired;
+
+    // Bumped whenever the numbers or marks change
+    private transient int version;
+    // Last computed win result, valid while its version matches
+    private transient WinResult winResult;
+
+    /**
+     * Immutable snapshot of the patterns a ticket had completed at one version
+     */
+    public static final class WinResult {
+        private final int version;
+        private final long enabledPatterns;
+        private final int registrySize;
+        private final long completedPatterns;
+        private final List<String> patternNames;
+        private String summary;
+
+        WinResult(int version, long enabledPatterns, int registrySize, long completedPatterns, List<String> patternNames) {
+            this.version = version;
+            this.enabledPatterns = enabledPatterns;
+            this.registrySize = registrySize;
+            this.completedPatterns = completedPatterns;
+            this.patternNames = Collections.unmodifiableList(patternNames);
+        }
+
+        public boolean hasWins() {
+            return completedPatterns != 0;
+        }
+
+        /**
+         * Bitset of completed pattern indices
+         */
+        public long getCompletedPatterns() {
+            return completedPatterns;
+        }
+
+        public List<String> getPatternNames() {
+            return patternNames;
+        }
+
+        /**
+         * Pattern names joined with commas, built once
+         */
+        public String getSummary() {
+            if (summary == null) {
+                summary = String.join(", ", patternNames);
+            }
+            return summary;
+        }
+    }
+
+    public Ticket(String ticketId) {
+        this.ticketId = ticketId;
+        this.cells = new byte[CELLS];
+        this.markedMask = 0;
+    }
+
+    /**
+     * Restores a ticket from its row-major cell layout and marked-cell bitmask
+     */
+    public Ticket(String ticketId, byte[] cells, int markedMask) {
+        this.ticketId = ticketId;
+        this.cells = cells.clone();
+        this.markedMask = markedMask;
+    }
+
+    public static int cellIndex(int row, int col) {
+        return row * COLS + col;
+    }
+
+    public String getTicketId() {
+        return ticketId;
+    }
+
+    public void setTicketId(String ticketId) {
+        this.ticketId = ticketId;
+    }
+
+    public Integer getNumber(int row, int col) {
+        int number = cells[cellIndex(row, col)];
+        return number == 0 ? null : number;
+    }
+
+    public void setNumber(int row, int col, Integer number) {
+        cells[cellIndex(row, col)] = number == null ? 0 : (byte) (int) number;
+        patternMasks = null;
+        version++;
+    }
+
+    /**
+     * Returns the number in the given row-major cell, or 0 if the cell is empty
+     */
+    public int getCell(int cell) {
+        return cells[cell];
+    }
+
+    public boolean isMarked(int row, int col) {
+        return (markedMask & (1 << cellIndex(row, col))) != 0;
+    }
+
+    public void setMarked(int row, int col, boolean value) {
+        int bit = 1 << cellIndex(row, col);
+        markedMask = value ? (markedMask | bit) : (markedMask & ~bit);
+        version++;
+    }
+
+    public int getMarkedMask() {
+        return markedMask;
+    }
+
+    /**
+     * Modification version, bumped on every change to numbers or marks
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns a bitmask of the cells that hold a number
+     */
+    public int getNumberedMask() {
+        int mask = 0;
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (cells[cell] != 0) {
+                mask |= 1 << cell;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Returns a copy of the row-major cell layout
+     */
+    public byte[] copyCells() {
+        return cells.clone();
+    }
+
+    public boolean isCellMarked(int cell) {
+        return (markedMask & (1 << cell)) != 0;
+    }
+
+    public void markCell(int cell) {
+        markedMask |= 1 << cell;
+        version++;
+    }
+
+    public void unmarkCell(int cell) {
+        markedMask &= ~(1 << cell);
+        version++;
+    }
+
+    public void markNumber(int number) {
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (cells[cell] == number) {
+                markedMask |= 1 << cell;
+                version++;
+            }
+        }
+    }
+
+    /**
+     * Returns the compiled cell mask of the given pattern index
+     */
+    public int getPatternMask(int pattern) {
+        ensureCompiled();
+        return patternMasks[pattern];
+    }
+
+    /**
+     * Returns how many cells of the pattern mask must be marked to complete it
+     */
+    public int getPatternRequired(int pattern) {
+        ensureCompiled();
+        return patternRequired[pattern];
+    }
+
+    /**
+     * Returns true if the given pattern index is complete on this ticket
+     */
+    public boolean isPatternComplete(int pattern) {
+        ensureCompiled();
+        return Integer.bitCount(markedMask & patternMasks[pattern]) >= patternRequired[pattern];
+    }
+
+    // Compiles every registered pattern against this layout
+    private void ensureCompiled() {
+        PatternRegistry registry = PatternRegistry.getDefault();
+        int count = registry.size();
+        if (patternMasks != null && patternMasks.length == count) {
+            return;
+        }
+        int[] masks = new int[count];
+        int[] required = new int[count];
+        for (int p = 0; p < count; p++) {
+            WinningPattern pattern = registry.get(p);
+            int mask = pattern.compileMask(cells);
+            masks[p] = mask == -1 ? 0 : mask;
+            required[p] = pattern.requiredCount(mask);
+        }
+        patternRequired = required;
+        patternMasks = masks;
+    }
+
+    // Check if this ticket has won any prize based on the marked numbers
+    public List<String> checkWinningPatterns() {
+        return checkWinningPatterns(-1L);
+    }
+
+    // Same as above, but only evaluates the patterns in play for this game.
+    // The returned list is read-only.
+    public List<String> checkWinningPatterns(long enabledPatterns) {
+        return getWinResult(enabledPatterns).getPatternNames();
+    }
+
+    /**
+     * Returns the completed patterns among those enabled, reusing the cached
+     * result if the ticket hasn't changed since it was computed
+     */
+    public WinResult getWinResult(long enabledPatterns) {
+        PatternRegistry registry = PatternRegistry.getDefault();
+        WinResult cached = winResult;
+        if (cached != null && cached.version == version && cached.enabledPatterns == enabledPatterns
+                && cached.registrySize == registry.size()) {
+            return cached;
+        }
+
+        List<String> winningPatterns = new ArrayList<>();
+        long completed = 0;
+        for (int p = 0; p < registry.size(); p++) {
+            if ((enabledPatterns & (1L << p)) != 0 && isPatternComplete(p)) {
+                completed |= 1L << p;
+                winningPatterns.add(registry.get(p).getName());
+            }
+        }
+
+        winResult = new WinResult(version, enabledPatterns, registry.size(), completed, winningPatterns);
+        return winResult;
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.housie_app;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers recently scanned tickets by a perceptual hash of their picture,
+ * so a ticket that is still (or again) in front of the camera is recognized
+ * from its hash in microseconds instead of by another text recognition.
+ *
+ * The ticket's rectangle is divided into the 9 x 3 cell grid. The low 27 bits
+ * hold the layout: a bit is set where the middle of the cell is darker than
+ * the cells' mean, i.e. where a number is printed. The next 27 bits hold the
+ * digits: for each filled cell after the first of its row, whether its number
+ * carries more ink than the filled cell before it, so tickets sharing a
+ * layout still hash apart. A hash within MAX_LAYOUT_DISTANCE differing layout
+ * bits and MAX_DIGIT_DISTANCE differing digit bits counts as the same ticket.
+ * Several hashes may point at one ticket, e.g. one per frame it was seen in,
+ * which covers small changes of angle.
+ *
+ * Each ticket's numbers are kept with its hashes, so a hit can be confirmed
+ * against a reading of the frame before the reading is skipped for good.
+ *
+ * The cache keeps the most recently seen hashes up to its capacity. Not
+ * thread-safe.
+ */
+public class TicketHashCache {
+    // Differing bits still taken for the same ticket
+    static final int MAX_LAYOUT_DISTANCE = 1;
+    static final int MAX_DIGIT_DISTANCE = 3;
+    // Numbers a reading may get wrong, and must get right, to confirm a hit
+    static final int MAX_MISREAD_NUMBERS = 2;
+    static final int MIN_CONFIRMED_NUMBERS = 8;
+    // Each cell is sampled in its middle, this share of its width and height,
+    // away from grid lines and neighbouring cells
+    private static final int CORE_PERCENT = 50;
+    // Share of the cell, around its middle, a printed number's ink is summed over
+    private static final int DIGIT_PERCENT = 80;
+    private static final long LAYOUT_BITS = (1L << Ticket.CELLS) - 1;
+
+    // Returned for a frame whose grid is too small to hash; never stored or found
+    public static final long NO_HASH = -1L;
+
+    private final LinkedHashMap<Long, String> entries;
+    private final Map<String, byte[]> numbers = new HashMap<>();
+
+    public TicketHashCache(final int capacity) {
+        // Access order, so lookups keep a hash alive and the eldest is the least recently seen
+        entries = new LinkedHashMap<Long, String>(capacity * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+                if (size() <= capacity) {
+                    return false;
+                }
+                // Forget the numbers along with the ticket's last hash
+                String ticketId = eldest.getValue();
+                int hashes = 0;
+                for (String id : values()) {
+                    hashes += id.equals(ticketId) ? 1 : 0;
+                }
+                if (hashes == 1) {
+                    numbers.remove(ticketId);
+                }
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Hash of the ticket within the given rectangle of a grey image, one
+     * byte per pixel, rows width apart, or NO_HASH if the rectangle is too
+     * small to hold the grid
+     * @param scratch at least Ticket.CELLS ints, overwritten
+     */
+    public static long hash(byte[] grey, int width, int left, int top, int right, int bottom, int[] scratch) {
+        int cellWidth = (right - left) / Ticket.COLS;
+        int cellHeight = (bottom - top) / Ticket.ROWS;
+        if (cellWidth < 2 || cellHeight < 2) {
+            return NO_HASH;
+        }
+
+        // Layout: cells whose middle is darker than average hold a number
+        int insetX = cellWidth * (100 - CORE_PERCENT) / 200;
+        int insetY = cellHeight * (100 - CORE_PERCENT) / 200;
+        int coreWidth = Math.max(1, cellWidth - 2 * insetX);
+        int coreHeight = Math.max(1, cellHeight - 2 * insetY);
+        int total = 0;
+        for (int cell = 0; cell < Ticket.CELLS; cell++) {
+            int x0 = left + (cell % Ticket.COLS) * cellWidth + insetX;
+            int y0 = top + (cell / Ticket.COLS) * cellHeight + insetY;
+            scratch[cell] = sum(grey, width, x0, y0, coreWidth, coreHeight) / (coreWidth * coreHeight);
+            total += scratch[cell];
+        }
+        int threshold = total / Ticket.CELLS;
+        long hash = 0;
+        for (int cell = 0; cell < Ticket.CELLS; cell++) {
+            if (scratch[cell] < threshold) {
+                hash |= 1L << cell;
+            }
+        }
+
+        // Digits: along each row, whether a number is darker than the one before
+        insetX = cellWidth * (100 - DIGIT_PERCENT) / 200;
+        insetY = cellHeight * (100 - DIGIT_PERCENT) / 200;
+        int digitWidth = Math.max(1, cellWidth - 2 * insetX);
+        int digitHeight = Math.max(1, cellHeight - 2 * insetY);
+        for (int row = 0; row < Ticket.ROWS; row++) {
+            int previousSum = -1;
+            for (int col = 0; col < Ticket.COLS; col++) {
+                int cell = Ticket.cellIndex(row, col);
+                if ((hash & (1L << cell)) == 0) {
+                    continue;
+                }
+                int x0 = left + col * cellWidth + insetX;
+                int y0 = top + row * cellHeight + insetY;
+                int sum = sum(grey, width, x0, y0, digitWidth, digitHeight);
+                if (previousSum >= 0 && sum < previousSum) {
+                    hash |= 1L << (Ticket.CELLS + cell);
+                }
+                previousSum = sum;
+            }
+        }
+        return hash;
+    }
+
+    private static int sum(byte[] grey, int width, int x0, int y0, int w, int h) {
+        int sum = 0;
+        for (int y = y0; y < y0 + h; y++) {
+            int offset = y * width;
+            for (int x = x0; x < x0 + w; x++) {
+                sum += grey[offset + x] & 0xFF;
+            }
+        }
+        return sum;
+    }
+
+    public static boolean isSameTicket(long a, long b) {
+        long differing = a ^ b;
+        return Long.bitCount(differing & LAYOUT_BITS) <= MAX_LAYOUT_DISTANCE
+                && Long.bitCount(differing >>> Ticket.CELLS) <= MAX_DIGIT_DISTANCE;
+    }
+
+    /**
+     * Ticket id of the closest remembered hash taken for the same ticket, or
+     * null. A hit counts as a use and keeps the ticket from being evicted.
+     */
+    public String find(long hash) {
+        if (hash == NO_HASH) {
+            return null;
+        }
+        Long best = null;
+        int bestDistance = Integer.MAX_VALUE;
+        for (Long key : entries.keySet()) {
+            int d = Long.bitCount(hash ^ key);
+            if (d < bestDistance && isSameTicket(hash, key)) {
+                best = key;
+                bestDistance = d;
+            }
+        }
+        return best == null ? null : entries.get(best);
+    }
+
+    /**
+     * Remembers a hash of the ticket with the given numbers
+     */
+    public void put(long hash, String ticketId, byte[] cells) {
+        if (hash == NO_HASH) {
+            return;
+        }
+        numbers.put(ticketId, cells.clone());
+        entries.put(hash, ticketId);
+    }
+
+    /**
+     * True if a reading of the frame agrees with the numbers of the ticket
+     * its hash was found for: few read numbers differ and enough match.
+     * Unread cells (0) are ignored.
+     */
+    public boolean confirm(String ticketId, byte[] readCells) {
+        byte[] cells = numbers.get(ticketId);
+        if (cells == null) {
+            return false;
+        }
+        int matched = 0;
+        int misread = 0;
+        for (int cell = 0; cell < Ticket.CELLS; cell++) {
+            if (readCells[cell] == 0) {
+                continue;
+            }
+            if (readCells[cell] == cells[cell]) {
+                matched++;
+            } else {
+                misread++;
+            }
+        }
+        return misread <= MAX_MISREAD_NUMBERS && matched >= MIN_CONFIRMED_NUMBERS;
+    }
+
+    /**
+     * Id of a remembered ticket with exactly these numbers, or null, e.g. for
+     * a ticket voted on again after its hash was missed
+     */
+    public String findTicket(byte[] cells) {
+        for (Map.Entry<String, byte[]> entry : numbers.entrySet()) {
+            if (Arrays.equals(entry.getValue(), cells)) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Forgets every hash of a ticket, e.g. once it has been deleted
+     */
+    public void remove(String ticketId) {
+        numbers.remove(ticketId);
+        Iterator<String> ids = entries.values().iterator();
+        while (ids.hasNext()) {
+            if (ids.next().equals(ticketId)) {
+                ids.remove();
+            }
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+        numbers.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.housie_app;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Inverted index from each housie number (1-90) to the ticket cells holding it.
+ * Marking a called number only visits the tickets that actually contain it.
+ * Each ticket remembers where its postings sit, so removing it costs one
+ * step per number rather than a scan of every posting list.
+ */
+public class TicketIndex {
+    public static final int MAX_NUMBER = 90;
+
+    public interface OnCellMarkedListener {
+        void onCellMarked(Ticket ticket, int cell);
+
+        /**
+         * Called when a mark is taken back, e.g. by an undo. The ticket
+         * already shows the cell unmarked.
+         */
+        default void onCellUnmarked(Ticket ticket, int cell) {
+        }
+
+        /**
+         * Called by GameEngine when a prize is claimed and its pattern stops
+         * being awarded
+         */
+        default void onPatternClosed(int pattern) {
+        }
+
+        /**
+         * Called by GameEngine when undoing a call reopens a pattern closed
+         * after it. Marks made while it was closed have been taken back already.
+         */
+        default void onPatternReopened(int pattern) {
+        }
+    }
+
+    // A ticket's layout when it was indexed, so stale postings can be removed
+    // even after the ticket has been edited in place, and the position of each
+    // of its cells in that number's postings
+    private static final class Indexed {
+        final byte[] layout;
+        final int[] slots = new int[Ticket.CELLS];
+
+        Indexed(byte[] layout) {
+            this.layout = layout;
+        }
+    }
+
+    private final Postings[] postings = new Postings[MAX_NUMBER + 1];
+    private final Map<Ticket, Indexed> indexed = new IdentityHashMap<>();
+
+    public TicketIndex() {
+        for (int n = 1; n <= MAX_NUMBER; n++) {
+            postings[n] = new Postings();
+        }
+    }
+
+    public void add(Ticket ticket) {
+        Indexed entry = new Indexed(ticket.copyCells());
+        indexed.put(ticket, entry);
+        for (int cell = 0; cell < Ticket.CELLS; cell++) {
+            int number = entry.layout[cell];
+            if (number >= 1 && number <= MAX_NUMBER) {
+                postings[number].add(ticket, cell, entry);
+            }
+        }
+    }
+
+    public void remove(Ticket ticket) {
+        Indexed entry = indexed.remove(ticket);
+        if (entry == null) {
+            return;
+        }
+        for (int cell = 0; cell < Ticket.CELLS; cell++) {
+            int number = entry.layout[cell];
+            if (number >= 1 && number <= MAX_NUMBER) {
+                postings[number].remove(entry.slots[cell]);
+            }
+        }
+    }
+
+    /**
+     * Re-indexes a ticket whose layout may have changed
+     */
+    public void update(Ticket oldTicket, Ticket newTicket) {
+        remove(oldTicket);
+        add(newTicket);
+    }
+
+    public void clear() {
+        indexed.clear();
+        for (int n = 1; n <= MAX_NUMBER; n++) {
+            postings[n].clear();
+        }
+    }
+
+    /**
+     * Marks the number on every ticket that holds it
+     * @return the number of cells marked
+     */
+    public int markNumber(int number) {
+        return markNumber(number, null);
+    }
+
+    /**
+     * Marks the number on every ticket that holds it, reporting each cell
+     * that was not already marked to the listener
+     * @return the number of cells newly marked
+     */
+    public int markNumber(int number, OnCellMarkedListener listener) {
+        if (number < 1 || number > MAX_NUMBER) {
+            return 0;
+        }
+        Postings list = postings[number];
+        int marked = 0;
+        for (int i = 0; i < list.size; i++) {
+            Ticket ticket = list.tickets[i];
+            int cell = list.cells[i];
+            if (ticket.isCellMarked(cell)) {
+                continue;
+            }
+            ticket.markCell(cell);
+            marked++;
+            if (listener != null) {
+                listener.onCellMarked(ticket, cell);
+            }
+        }
+        return marked;
+    }
+
+    /**
+     * Unmarks the number on every ticket that holds it, e.g. to replay an undone call
+     * @return the number of cells unmarked
+     */
+    public int unmarkNumber(int number) {
+        if (number < 1 || number > MAX_NUMBER) {
+            return 0;
+        }
+        Postings list = postings[number];
+        int unmarked = 0;
+        for (int i = 0; i < list.size; i++) {
+            Ticket ticket = list.tickets[i];
+            int cell = list.cells[i];
+            if (ticket.isCellMarked(cell)) {
+                ticket.unmarkCell(cell);
+                unmarked++;
+            }
+        }
+        return unmarked;
+    }
+
+    public int getPostingCount(int number) {
+        return number >= 1 && number <= MAX_NUMBER ? postings[number].size : 0;
+    }
+
+    // Growable parallel arrays of (ticket, cell) postings for one number
+    private static final class Postings {
+        Ticket[] tickets = new Ticket[4];
+        byte[] cells = new byte[4];
+        Indexed[] owners = new Indexed[4];
+        int size;
+
+        void add(Ticket ticket, int cell, Indexed owner) {
+            if (size == tickets.length) {
+                tickets = Arrays.copyOf(tickets, size * 2);
+                cells = Arrays.copyOf(cells, size * 2);
+                owners = Arrays.copyOf(owners, size * 2);
+            }
+            tickets[size] = ticket;
+            cells[size] = (byte) cell;
+            owners[size] = owner;
+            owner.slots[cell] = size;
+            size++;
+        }
+
+        void remove(int i) {
+            // Order is irrelevant, so move the last posting into the gap
+            size--;
+            tickets[i] = tickets[size];
+            cells[i] = cells[size];
+            owners[i] = owners[size];
+            owners[i].slots[cells[i]] = i;
+            tickets[size] = null;
+            owners[size] = null;
+        }
+
+        void clear() {
+            Arrays.fill(tickets, 0, size, null);
+            Arrays.fill(owners, 0, size, null);
+            size = 0;
+        }
+    }
+}
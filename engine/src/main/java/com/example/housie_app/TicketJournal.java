@@ -0,0 +1,263 @@
+package com.example.housie_app;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+
+/**
+ * Append-only journal of ticket book events recorded since the last snapshot.
+ * A called number costs a two byte append no matter how many tickets are loaded;
+ * the book is recovered by loading the snapshot and replaying the journal.
+ *
+ * Appends are buffered in memory; the owner drains the buffer and writes it
+ * from a single writer thread.
+ */
+public class TicketJournal {
+    private static final byte NUMBER_CALLED = 1;
+    private static final byte TICKET_ADDED = 2;
+    private static final byte TICKET_EDITED = 3;
+    private static final byte TICKET_DELETED = 4;
+    private static final byte ALL_DELETED = 5;
+    private static final byte NUMBER_UNCALLED = 6;
+
+    public interface Replayer {
+        void onNumberCalled(int number);
+        void onTicketAdded(Ticket ticket);
+        void onTicketEdited(Ticket ticket);
+        void onTicketDeleted(String ticketId);
+        void onAllDeleted();
+        void onNumberUncalled(int number);
+    }
+
+    private final File file;
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream(256);
+    private final DataOutputStream pendingWriter = new DataOutputStream(pending);
+    private FileOutputStream out;
+    private int eventCount;
+
+    public TicketJournal(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Replays every complete event in the journal. A torn record left by a
+     * crash mid-append is dropped and truncated away.
+     */
+    public void replay(Replayer replayer) throws IOException {
+        eventCount = 0;
+        if (!file.exists()) {
+            return;
+        }
+        long validLength = 0;
+        CountingInputStream counter = new CountingInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try (DataInputStream in = new DataInputStream(counter)) {
+            while (true) {
+                int type = in.read();
+                if (type == -1 || !replayEvent(type, in, replayer)) {
+                    break;
+                }
+                validLength = counter.count;
+                eventCount++;
+            }
+        } catch (EOFException e) {
+            // Torn final record
+        }
+        if (validLength < file.length()) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(validLength);
+            }
+        }
+    }
+
+    // Returns false if the event type is unknown
+    private boolean replayEvent(int type, DataInputStream in, Replayer replayer) throws IOException {
+        switch (type) {
+            case NUMBER_CALLED:
+                replayer.onNumberCalled(in.readUnsignedByte());
+                return true;
+            case TICKET_ADDED:
+            case TICKET_EDITED: {
+                String ticketId = in.readUTF();
+                byte[] cells = new byte[Ticket.CELLS];
+                in.readFully(cells);
+                int markedMask = in.readInt();
+                Ticket ticket = new Ticket(ticketId, cells, markedMask);
+                if (type == TICKET_ADDED) {
+                    replayer.onTicketAdded(ticket);
+                } else {
+                    replayer.onTicketEdited(ticket);
+                }
+                return true;
+            }
+            case TICKET_DELETED: {
+                String ticketId = in.readUTF();
+                replayer.onTicketDeleted(ticketId);
+                return true;
+            }
+            case ALL_DELETED:
+                replayer.onAllDeleted();
+                return true;
+            case NUMBER_UNCALLED:
+                replayer.onNumberUncalled(in.readUnsignedByte());
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    // Events are encoded into an in-memory buffer and only reach the file
+    // when the writer thread drains it, so appending never does I/O
+
+    public void appendNumberCalled(int number) throws IOException {
+        pendingWriter.writeByte(NUMBER_CALLED);
+        pendingWriter.writeByte(number);
+    }
+
+    public void appendNumberUncalled(int number) throws IOException {
+        pendingWriter.writeByte(NUMBER_UNCALLED);
+        pendingWriter.writeByte(number);
+    }
+
+    public void appendTicketAdded(Ticket ticket) throws IOException {
+        appendTicket(TICKET_ADDED, ticket);
+    }
+
+    public void appendTicketEdited(Ticket ticket) throws IOException {
+        appendTicket(TICKET_EDITED, ticket);
+    }
+
+    public void appendTicketDeleted(String ticketId) throws IOException {
+        pendingWriter.writeByte(TICKET_DELETED);
+        pendingWriter.writeUTF(ticketId);
+    }
+
+    public void appendAllDeleted() throws IOException {
+        pendingWriter.writeByte(ALL_DELETED);
+    }
+
+    private void appendTicket(byte type, Ticket ticket) throws IOException {
+        pendingWriter.writeByte(type);
+        pendingWriter.writeUTF(ticket.getTicketId());
+        for (int cell = 0; cell < Ticket.CELLS; cell++) {
+            pendingWriter.writeByte(ticket.getCell(cell));
+        }
+        pendingWriter.writeInt(ticket.getMarkedMask());
+    }
+
+    public boolean hasPending() {
+        return pending.size() > 0;
+    }
+
+    /**
+     * Returns the encoded events appended since the last drain and clears them
+     */
+    public byte[] drainPending() {
+        byte[] records = pending.toByteArray();
+        pending.reset();
+        return records;
+    }
+
+    /**
+     * Number of encoded bytes appended since the last drain
+     */
+    public int getPendingSize() {
+        return pending.size();
+    }
+
+    /**
+     * Puts drained events back in front of anything appended since, e.g.
+     * when they couldn't be written and must be retried
+     */
+    public void restorePending(byte[] records) {
+        byte[] newer = pending.toByteArray();
+        pending.reset();
+        pending.write(records, 0, records.length);
+        pending.write(newer, 0, newer.length);
+    }
+
+    /**
+     * Appends drained events to the journal file in a single write
+     */
+    public void write(byte[] records) throws IOException {
+        write(records, 0, records.length);
+    }
+
+    /**
+     * Appends part of the drained events, e.g. the ones a new snapshot
+     * doesn't cover
+     */
+    public void write(byte[] records, int offset, int length) throws IOException {
+        if (length == 0) {
+            return;
+        }
+        if (out == null) {
+            out = new FileOutputStream(file, true);
+        }
+        out.write(records, offset, length);
+    }
+
+    /**
+     * Number of events found by the last replay
+     */
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * Discards the journal file once its events are covered by a new snapshot
+     */
+    public void reset() throws IOException {
+        close();
+        new FileOutputStream(file, false).close();
+    }
+
+    public void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+
+    // Tracks how far replay has read, so a torn tail can be truncated
+    private static final class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
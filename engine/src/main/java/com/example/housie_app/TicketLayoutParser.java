@@ -0,0 +1,258 @@
+package com.example.housie_app;
+
+/**
+ * Rebuilds a ticket's 3x9 layout from recognized text elements and their
+ * positions. Elements are clustered into the three rows by their vertical
+ * centres, following the tilt of the photo. Columns come from each number's
+ * decade, cross-checked against a line fitted through the elements'
+ * horizontal centres, so a misread tens digit shows up as a low-confidence
+ * cell instead of a number in the wrong place.
+ *
+ * A parser keeps all its working arrays, so one instance can be reused for
+ * every analyzed frame without allocating. Not thread-safe.
+ */
+public class TicketLayoutParser {
+    public static final int MAX_ELEMENTS = 128;
+
+    // Confidence factor for a number whose decade disagrees with its position
+    static final float MISPLACED_FACTOR = 0.4f;
+    // Confidence of an empty cell in a row that doesn't hold five numbers
+    static final float UNSURE_EMPTY = 0.5f;
+    // Outlier limits, in columns, of the successive column fits
+    private static final float[] FIT_LIMITS = {2f, 1f, 0.5f};
+
+    private final int[] values = new int[MAX_ELEMENTS];
+    private final float[] centreX = new float[MAX_ELEMENTS];
+    private final float[] centreY = new float[MAX_ELEMENTS];
+    private final float[] heights = new float[MAX_ELEMENTS];
+    private final float[] confidences = new float[MAX_ELEMENTS];
+    private int count;
+
+    // Scratch space reused by parse()
+    private final RowClusterer rowClusterer = new RowClusterer(MAX_ELEMENTS);
+    private final int[] rowOf = new int[MAX_ELEMENTS];
+    private final boolean[] inFit = new boolean[MAX_ELEMENTS];
+    private final int[] cellElement = new int[Ticket.CELLS];
+    private final boolean[] cellAgrees = new boolean[Ticket.CELLS];
+    private float fitOffset;
+    private float fitSlope;
+
+    /**
+     * Forgets the elements of the previous frame
+     */
+    public void reset() {
+        count = 0;
+    }
+
+    public int getElementCount() {
+        return count;
+    }
+
+    /**
+     * Adds one recognized word with its bounding box. Words that aren't a
+     * number from 1 to 90 (after trimming stray grid lines and punctuation)
+     * are ignored. Returns true if the word was kept.
+     */
+    public boolean addElement(CharSequence text, int left, int top, int right, int bottom, float confidence) {
+        int value = parseNumber(text);
+        return value != 0 && addNumber(value, left, top, right, bottom, confidence);
+    }
+
+    /**
+     * Adds a number that has already been read, e.g. handed over by the
+     * sheet segmenter
+     */
+    public boolean addNumber(int value, int left, int top, int right, int bottom, float confidence) {
+        if (count == MAX_ELEMENTS) {
+            return false;
+        }
+        values[count] = value;
+        centreX[count] = (left + right) * 0.5f;
+        centreY[count] = (top + bottom) * 0.5f;
+        heights[count] = Math.max(1, bottom - top);
+        confidences[count] = Math.max(0f, Math.min(1f, confidence));
+        count++;
+        return true;
+    }
+
+    // Reads "7", "|42", "90." etc. as a number, 0 for anything else
+    static int parseNumber(CharSequence text) {
+        int start = 0;
+        int end = text.length();
+        while (start < end && !Character.isDigit(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && !Character.isDigit(text.charAt(end - 1))) {
+            end--;
+        }
+        if (end - start < 1 || end - start > 2) {
+            return 0;
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (!Character.isDigit(c)) {
+                return 0;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value >= 1 && value <= TicketIndex.MAX_NUMBER ? value : 0;
+    }
+
+    static int decadeColumn(int number) {
+        return Math.min(number / 10, Ticket.COLS - 1);
+    }
+
+    /**
+     * Lays out the added elements into cells (row-major, 0 for empty) and
+     * scores every cell from 0 to 1. Returns false, leaving the arrays
+     * cleared, if there are too few numbers to be a ticket.
+     */
+    public boolean parse(byte[] cells, float[] cellConfidence) {
+        for (int cell = 0; cell < Ticket.CELLS; cell++) {
+            cells[cell] = 0;
+            cellConfidence[cell] = 0f;
+            cellElement[cell] = -1;
+        }
+        if (count < StripGenerator.NUMBERS_PER_ROW) {
+            return false;
+        }
+
+        int rows = assignRows();
+        boolean fitted = fitColumns();
+
+        // Place each number; a clash keeps the more confident reading
+        for (int e = 0; e < count; e++) {
+            int row = rowOf[e];
+            if (row < 0) {
+                continue;
+            }
+            int decade = decadeColumn(values[e]);
+            int col = decade;
+            if (fitted) {
+                int placed = Math.round((centreX[e] - fitOffset) / fitSlope);
+                col = Math.max(0, Math.min(Ticket.COLS - 1, placed));
+            }
+            int cell = Ticket.cellIndex(row, col);
+            int current = cellElement[cell];
+            if (current < 0 || confidences[e] > confidences[current]) {
+                cellElement[cell] = e;
+                cellAgrees[cell] = col == decade;
+            }
+        }
+
+        int placed = 0;
+        for (int row = 0; row < Ticket.ROWS; row++) {
+            int inRow = 0;
+            for (int col = 0; col < Ticket.COLS; col++) {
+                int cell = Ticket.cellIndex(row, col);
+                int e = cellElement[cell];
+                if (e >= 0) {
+                    cells[cell] = (byte) values[e];
+                    cellConfidence[cell] = confidences[e] * (cellAgrees[cell] ? 1f : MISPLACED_FACTOR);
+                    inRow++;
+                }
+            }
+            // Gaps are only trustworthy in a row that has all its numbers
+            float empty = row < rows && inRow == StripGenerator.NUMBERS_PER_ROW ? 1f : UNSURE_EMPTY;
+            for (int col = 0; col < Ticket.COLS; col++) {
+                int cell = Ticket.cellIndex(row, col);
+                if (cellElement[cell] < 0) {
+                    cellConfidence[cell] = empty;
+                }
+            }
+            placed += inRow;
+        }
+        return placed >= StripGenerator.NUMBERS_PER_ROW;
+    }
+
+    // Clusters the elements into rows and keeps the three adjacent clusters
+    // holding the most numbers; returns how many rows were found
+    private int assignRows() {
+        for (int e = 0; e < count; e++) {
+            rowOf[e] = -1;
+        }
+        int clusters = rowClusterer.cluster(centreX, centreY, heights, count);
+        int[] clusterStart = rowClusterer.clusterStart;
+
+        int rows = Math.min(clusters, Ticket.ROWS);
+        int best = 0;
+        int bestSize = -1;
+        for (int first = 0; first + rows <= clusters; first++) {
+            int size = clusterStart[first + rows] - clusterStart[first];
+            if (size > bestSize) {
+                best = first;
+                bestSize = size;
+            }
+        }
+        for (int row = 0; row < rows; row++) {
+            for (int i = clusterStart[best + row]; i < clusterStart[best + row + 1]; i++) {
+                rowOf[rowClusterer.order[i]] = row;
+            }
+        }
+        return rows;
+    }
+
+    // Fits x = offset + slope * column through the row elements, using each
+    // number's decade as its column, then refits with ever tighter limits so a
+    // single misread decade can't drag the line away from the rest
+    private boolean fitColumns() {
+        for (int e = 0; e < count; e++) {
+            inFit[e] = rowOf[e] >= 0;
+        }
+        if (!fitLine()) {
+            return false;
+        }
+        for (float limit : FIT_LIMITS) {
+            int kept = 0;
+            for (int e = 0; e < count; e++) {
+                if (rowOf[e] < 0) {
+                    continue;
+                }
+                float residual = (centreX[e] - fitOffset) / fitSlope - decadeColumn(values[e]);
+                inFit[e] = Math.abs(residual) <= limit;
+                if (inFit[e]) {
+                    kept++;
+                }
+            }
+            // Too few agreeing numbers and positions can't be trusted over decades
+            if (kept < StripGenerator.NUMBERS_PER_ROW || !fitLine()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean fitLine() {
+        int n = 0;
+        float sumCol = 0;
+        float sumX = 0;
+        for (int e = 0; e < count; e++) {
+            if (inFit[e]) {
+                n++;
+                sumCol += decadeColumn(values[e]);
+                sumX += centreX[e];
+            }
+        }
+        if (n < 2) {
+            return false;
+        }
+        float meanCol = sumCol / n;
+        float meanX = sumX / n;
+        float covariance = 0;
+        float variance = 0;
+        for (int e = 0; e < count; e++) {
+            if (inFit[e]) {
+                float dc = decadeColumn(values[e]) - meanCol;
+                covariance += dc * (centreX[e] - meanX);
+                variance += dc * dc;
+            }
+        }
+        if (variance == 0 || covariance <= 0) {
+            return false;
+        }
+        fitSlope = covariance / variance;
+        fitOffset = meanX - fitSlope * meanCol;
+        return true;
+    }
+}
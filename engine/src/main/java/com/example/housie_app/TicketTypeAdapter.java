@@ -0,0 +1,148 @@
+package com.example.housie_app;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Streaming Gson adapter for Ticket.
+ *
+ * Writes the compact form {"id": "...", "cells": [27 ints], "marks": bitmask}
+ * and reads it straight into primitive arrays. It also reads the reflective
+ * {"ticketId", "cells", "markedMask"} form and the original
+ * {"ticketId", "numbers": Integer[3][9], "marked": boolean[3][9]} form so
+ * older books keep loading.
+ *
+ * Registered on Ticket with @JsonAdapter, so any Gson instance uses it.
+ * A ticket holding a number outside 1-90 is read to its end and then
+ * rejected with a JsonParseException, leaving the reader on the next value.
+ */
+public class TicketTypeAdapter extends TypeAdapter<Ticket> {
+
+    @Override
+    public void write(JsonWriter out, Ticket ticket) throws IOException {
+        if (ticket == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("id").value(ticket.getTicketId());
+        out.name("cells").beginArray();
+        for (int cell = 0; cell < Ticket.CELLS; cell++) {
+            out.value(ticket.getCell(cell));
+        }
+        out.endArray();
+        out.name("marks").value(ticket.getMarkedMask());
+        out.endObject();
+    }
+
+    @Override
+    public Ticket read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String ticketId = null;
+        byte[] cells = new byte[Ticket.CELLS];
+        int marks = 0;
+        int outOfRange = 0;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id":
+                case "ticketId":
+                    ticketId = in.nextString();
+                    break;
+                case "cells":
+                    outOfRange += readCells(in, cells);
+                    break;
+                case "marks":
+                case "markedMask":
+                    marks = in.nextInt();
+                    break;
+                case "numbers":
+                    outOfRange += readLegacyNumbers(in, cells);
+                    break;
+                case "marked":
+                    marks = readLegacyMarked(in);
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        if (outOfRange > 0) {
+            throw new JsonParseException("Ticket " + ticketId + " has " + outOfRange + " numbers outside 1-90");
+        }
+        return new Ticket(ticketId, cells, marks);
+    }
+
+    private static boolean isInRange(int number) {
+        return number >= 0 && number <= TicketIndex.MAX_NUMBER;
+    }
+
+    // Returns how many numbers were out of range; those cells are left empty
+    private static int readCells(JsonReader in, byte[] cells) throws IOException {
+        int outOfRange = 0;
+        in.beginArray();
+        int cell = 0;
+        while (in.hasNext()) {
+            int number = in.nextInt();
+            if (!isInRange(number)) {
+                outOfRange++;
+            } else if (cell < Ticket.CELLS) {
+                cells[cell] = (byte) number;
+            }
+            cell++;
+        }
+        in.endArray();
+        return outOfRange;
+    }
+
+    // Integer[3][9] with nulls for empty cells
+    private static int readLegacyNumbers(JsonReader in, byte[] cells) throws IOException {
+        int outOfRange = 0;
+        in.beginArray();
+        for (int i = 0; in.hasNext(); i++) {
+            in.beginArray();
+            for (int j = 0; in.hasNext(); j++) {
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                } else {
+                    int number = in.nextInt();
+                    if (!isInRange(number)) {
+                        outOfRange++;
+                    } else if (i < Ticket.ROWS && j < Ticket.COLS) {
+                        cells[Ticket.cellIndex(i, j)] = (byte) number;
+                    }
+                }
+            }
+            in.endArray();
+        }
+        in.endArray();
+        return outOfRange;
+    }
+
+    // boolean[3][9]
+    private static int readLegacyMarked(JsonReader in) throws IOException {
+        int marks = 0;
+        in.beginArray();
+        for (int i = 0; in.hasNext(); i++) {
+            in.beginArray();
+            for (int j = 0; in.hasNext(); j++) {
+                if (in.nextBoolean() && i < Ticket.ROWS && j < Ticket.COLS) {
+                    marks |= 1 << Ticket.cellIndex(i, j);
+                }
+            }
+            in.endArray();
+        }
+        in.endArray();
+        return marks;
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.housie_app;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks a ticket layout against the housie rules: every number inside its
+ * column's range, exactly five numbers per row, no number twice and numbers
+ * rising down each column. Each rule is a few mask operations over the 27
+ * cells, so validating costs next to nothing and can run on every save, scan
+ * and import.
+ */
+public final class TicketValidator {
+    private static final int ROW_MASK = (1 << Ticket.COLS) - 1;
+
+    private TicketValidator() {
+    }
+
+    /**
+     * Broken rules of one layout, as cell and row bitmasks
+     */
+    public static final class Result {
+        private final Ticket ticket;
+        private final byte[] cells;
+        private final int rangeCells;     // numbers outside their column's range
+        private final int duplicateCells; // numbers appearing more than once
+        private final int orderCells;     // numbers not larger than the one above
+        private final int badRows;        // rows without exactly five numbers
+
+        Result(Ticket ticket, byte[] cells, int rangeCells, int duplicateCells, int orderCells, int badRows) {
+            this.ticket = ticket;
+            this.cells = cells;
+            this.rangeCells = rangeCells;
+            this.duplicateCells = duplicateCells;
+            this.orderCells = orderCells;
+            this.badRows = badRows;
+        }
+
+        /**
+         * The validated ticket, or null if a bare layout was validated
+         */
+        public Ticket getTicket() {
+            return ticket;
+        }
+
+        public boolean isValid() {
+            return (rangeCells | duplicateCells | orderCells | badRows) == 0;
+        }
+
+        /**
+         * Bitmask of the cells that break a per-cell rule
+         */
+        public int getInvalidCells() {
+            return rangeCells | duplicateCells | orderCells;
+        }
+
+        /**
+         * Bitmask of the rows that don't hold exactly five numbers
+         */
+        public int getBadRows() {
+            return badRows;
+        }
+
+        /**
+         * Describes what is wrong with a cell, or returns null if it is fine
+         */
+        public String getCellError(int cell) {
+            int bit = 1 << cell;
+            if ((rangeCells & bit) != 0) {
+                int col = cell % Ticket.COLS;
+                return "Must be " + StripGenerator.columnFirst(col) + "-" + StripGenerator.columnLast(col) + " in this column";
+            }
+            if ((duplicateCells & bit) != 0) {
+                return "Number " + cells[cell] + " appears twice";
+            }
+            if ((orderCells & bit) != 0) {
+                return "Must be larger than the number above";
+            }
+            return null;
+        }
+
+        /**
+         * Describes what is wrong with a row, or returns null if it is fine
+         */
+        public String getRowError(int row) {
+            if ((badRows & (1 << row)) == 0) {
+                return null;
+            }
+            int count = Integer.bitCount(numberedMask(cells) >>> (row * Ticket.COLS) & ROW_MASK);
+            return "Row " + (row + 1) + " has " + count + " numbers, needs " + StripGenerator.NUMBERS_PER_ROW;
+        }
+
+        /**
+         * One line per problem, for dialogs and logs
+         */
+        public String getSummary() {
+            StringBuilder sb = new StringBuilder();
+            for (int row = 0; row < Ticket.ROWS; row++) {
+                String error = getRowError(row);
+                if (error != null) {
+                    sb.append(error).append('\n');
+                }
+            }
+            for (int bits = getInvalidCells(); bits != 0; bits &= bits - 1) {
+                int cell = Integer.numberOfTrailingZeros(bits);
+                sb.append("Row ").append(cell / Ticket.COLS + 1)
+                        .append(", column ").append(cell % Ticket.COLS + 1)
+                        .append(": ").append(getCellError(cell)).append('\n');
+            }
+            return sb.toString().trim();
+        }
+    }
+
+    public static Result validate(Ticket ticket) {
+        return validate(ticket, ticket.copyCells());
+    }
+
+    /**
+     * Validates a row-major layout that isn't a ticket yet, e.g. form input
+     */
+    public static Result validate(byte[] cells) {
+        return validate(null, cells);
+    }
+
+    /**
+     * Validates every ticket and returns the results of the invalid ones
+     */
+    public static List<Result> validateAll(List<Ticket> tickets) {
+        List<Result> invalid = new ArrayList<>();
+        byte[] cells = new byte[Ticket.CELLS];
+        for (Ticket ticket : tickets) {
+            for (int cell = 0; cell < Ticket.CELLS; cell++) {
+                cells[cell] = (byte) ticket.getCell(cell);
+            }
+            // Only the failures need their own copy of the layout
+            if (!isValid(cells)) {
+                invalid.add(validate(ticket));
+            }
+        }
+        return invalid;
+    }
+
+    /**
+     * Allocation-free check of a row-major layout
+     */
+    public static boolean isValid(byte[] cells) {
+        int numbered = 0;
+        for (int col = 0; col < Ticket.COLS; col++) {
+            int first = StripGenerator.columnFirst(col);
+            int last = StripGenerator.columnLast(col);
+            int above = 0;
+            for (int cell = col; cell < Ticket.CELLS; cell += Ticket.COLS) {
+                int number = cells[cell];
+                if (number == 0) {
+                    continue;
+                }
+                // Numbers stay in their column and rise down it, so no number can repeat
+                if (number < first || number > last || number <= above) {
+                    return false;
+                }
+                above = number;
+                numbered |= 1 << cell;
+            }
+        }
+        for (int row = 0; row < Ticket.ROWS; row++) {
+            if (Integer.bitCount(numbered >>> (row * Ticket.COLS) & ROW_MASK) != StripGenerator.NUMBERS_PER_ROW) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Result validate(Ticket ticket, byte[] cells) {
+        int range = 0;
+        long seenLow = 0;
+        long seenHigh = 0;
+        long repeatedLow = 0;
+        long repeatedHigh = 0;
+        for (int cell = 0; cell < Ticket.CELLS; cell++) {
+            int number = cells[cell];
+            if (number == 0) {
+                continue;
+            }
+            int col = cell % Ticket.COLS;
+            if (number < StripGenerator.columnFirst(col) || number > StripGenerator.columnLast(col)) {
+                range |= 1 << cell;
+            }
+            if (number < 1 || number > TicketIndex.MAX_NUMBER) {
+                continue;
+            }
+            long bit = 1L << (number & 63);
+            if (number < 64) {
+                repeatedLow |= seenLow & bit;
+                seenLow |= bit;
+            } else {
+                repeatedHigh |= seenHigh & bit;
+                seenHigh |= bit;
+            }
+        }
+
+        // Flag every copy of a repeated number, not just the later ones
+        int duplicates = 0;
+        if ((repeatedLow | repeatedHigh) != 0) {
+            for (int cell = 0; cell < Ticket.CELLS; cell++) {
+                int number = cells[cell];
+                if (number < 1 || number > TicketIndex.MAX_NUMBER) {
+                    continue;
+                }
+                long repeated = number < 64 ? repeatedLow : repeatedHigh;
+                if ((repeated & (1L << (number & 63))) != 0) {
+                    duplicates |= 1 << cell;
+                }
+            }
+        }
+
+        return new Result(ticket, cells, range, duplicates, orderCells(cells), badRows(cells));
+    }
+
+    private static int numberedMask(byte[] cells) {
+        int mask = 0;
+        for (int cell = 0; cell < Ticket.CELLS; cell++) {
+            if (cells[cell] != 0) {
+                mask |= 1 << cell;
+            }
+        }
+        return mask;
+    }
+
+    private static int badRows(byte[] cells) {
+        int numbered = numberedMask(cells);
+        int bad = 0;
+        for (int row = 0; row < Ticket.ROWS; row++) {
+            if (Integer.bitCount(numbered >>> (row * Ticket.COLS) & ROW_MASK) != StripGenerator.NUMBERS_PER_ROW) {
+                bad |= 1 << row;
+            }
+        }
+        return bad;
+    }
+
+    // Cells whose number doesn't exceed the nearest number above it
+    private static int orderCells(byte[] cells) {
+        int bad = 0;
+        for (int col = 0; col < Ticket.COLS; col++) {
+            int above = 0;
+            for (int row = 0; row < Ticket.ROWS; row++) {
+                int cell = Ticket.cellIndex(row, col);
+                int number = cells[cell];
+                if (number == 0) {
+                    continue;
+                }
+                if (number <= above) {
+                    bad |= 1 << cell;
+                }
+                above = Math.max(above, number);
+            }
+        }
+        return bad;
+    }
+}
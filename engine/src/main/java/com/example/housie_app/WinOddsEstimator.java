@@ -0,0 +1,459 @@
+package com.example.housie_app;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Estimates, by simulating random orders for the numbers not yet called, how
+ * likely each ticket is to claim each open prize first and how many more calls
+ * each prize is expected to take.
+ *
+ * Simulations run in rounds on a ForkJoin pool, each leaf with its own split
+ * of the random generator and its own scratch arrays, so a single simulation
+ * allocates nothing. A simulation draws numbers one by one, touches only the
+ * cells holding each, ends as soon as every open prize is claimed, and resets
+ * only the counters it changed. Rounds stop once every claim probability is
+ * known to within the target margin; the time budget, and a cancel when the
+ * calling thread is interrupted, are checked before every simulation, so a
+ * round on a large book can't overrun them.
+ */
+public class WinOddsEstimator {
+    private static final int NEVER = Integer.MAX_VALUE;
+    private static final int LEAF_SIMULATIONS = 256;
+    private static final int MIN_SIMULATIONS = 4096;
+    private static final int MAX_SIMULATIONS = 2_000_000;
+    private static final double Z_95 = 1.96;
+
+    private static ForkJoinPool pool;
+
+    /**
+     * Simulated odds for the prizes that were still open
+     */
+    public static final class Result {
+        private final int[] patterns;
+        private final int ticketCount;
+        private final double[] claimProbability; // [pattern slot * tickets + ticket]
+        private final double[] expectedCalls;    // per pattern slot, NaN if never claimed
+        private final int simulations;
+
+        Result(int[] patterns, int ticketCount, double[] claimProbability, double[] expectedCalls, int simulations) {
+            this.patterns = patterns;
+            this.ticketCount = ticketCount;
+            this.claimProbability = claimProbability;
+            this.expectedCalls = expectedCalls;
+            this.simulations = simulations;
+        }
+
+        /**
+         * Registry indices of the prizes that were simulated
+         */
+        public int[] getPatterns() {
+            return patterns.clone();
+        }
+
+        public int getSimulations() {
+            return simulations;
+        }
+
+        /**
+         * Probability that the ticket at the given position claims the pattern
+         * first; a shared claim counts as an equal split
+         */
+        public double getClaimProbability(int pattern, int position) {
+            int slot = slotOf(pattern);
+            return slot < 0 ? 0 : claimProbability[slot * ticketCount + position];
+        }
+
+        /**
+         * Expected number of further calls until the pattern is claimed
+         */
+        public double getExpectedCalls(int pattern) {
+            int slot = slotOf(pattern);
+            return slot < 0 ? Double.NaN : expectedCalls[slot];
+        }
+
+        /**
+         * Position of the ticket most likely to claim the pattern, or -1
+         */
+        public int getFavourite(int pattern) {
+            int slot = slotOf(pattern);
+            int favourite = -1;
+            double best = 0;
+            for (int t = 0; slot >= 0 && t < ticketCount; t++) {
+                double p = claimProbability[slot * ticketCount + t];
+                if (p > best) {
+                    best = p;
+                    favourite = t;
+                }
+            }
+            return favourite;
+        }
+
+        private int slotOf(int pattern) {
+            for (int k = 0; k < patterns.length; k++) {
+                if (patterns[k] == pattern) {
+                    return k;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private final int ticketCount;
+    private final int[] patterns;        // registry index per simulated pattern slot
+    private final int[] needed;          // cells still needed, [ticket * slots + slot], 0 if it can't be claimed
+    private final int claimableSlots;    // slots at least one ticket can still claim
+    // Postings of each uncalled number, like TicketIndex: the outstanding cells
+    // holding it, as the ticket and the slots that cell counts towards
+    private final int[] postingStart;    // [number] into the arrays below, with an end entry
+    private final int[] postingTicket;
+    private final long[] postingSlots;
+    private final int[] remainingNumbers;
+
+    private double margin = 0.01;
+    private long timeBudgetMillis = 1500;
+
+    /**
+     * Prepares a simulation of the rest of the game for the given book.
+     * Patterns not in enabledPatterns, and prizes some ticket already holds,
+     * are left out.
+     */
+    public WinOddsEstimator(List<Ticket> tickets, Set<Integer> calledNumbers, long enabledPatterns) {
+        PatternRegistry registry = PatternRegistry.getDefault();
+        this.ticketCount = tickets.size();
+
+        List<Integer> open = new ArrayList<>();
+        for (int p = 0; p < registry.size(); p++) {
+            if ((enabledPatterns & (1L << p)) != 0 && !isClaimed(tickets, p)) {
+                open.add(p);
+            }
+        }
+        this.patterns = new int[open.size()];
+        for (int k = 0; k < patterns.length; k++) {
+            patterns[k] = open.get(k);
+        }
+
+        int slots = patterns.length;
+        this.needed = new int[ticketCount * slots];
+        long[] cellSlots = new long[ticketCount * Ticket.CELLS];
+        boolean[] claimable = new boolean[slots];
+        int[] postingCounts = new int[TicketIndex.MAX_NUMBER + 1];
+        for (int t = 0; t < ticketCount; t++) {
+            Ticket ticket = tickets.get(t);
+            int marked = ticket.getMarkedMask();
+            for (int k = 0; k < slots; k++) {
+                int required = ticket.getPatternRequired(patterns[k]);
+                if (required == WinningPattern.UNREACHABLE) {
+                    continue;
+                }
+                int mask = ticket.getPatternMask(patterns[k]);
+                int outstanding = mask & ~marked;
+                int need = required - Integer.bitCount(mask & marked);
+                if (need <= 0 || need > Integer.bitCount(outstanding)) {
+                    continue;
+                }
+                needed[t * slots + k] = need;
+                claimable[k] = true;
+                for (int bits = outstanding; bits != 0; bits &= bits - 1) {
+                    cellSlots[t * Ticket.CELLS + Integer.numberOfTrailingZeros(bits)] |= 1L << k;
+                }
+            }
+            for (int cell = 0; cell < Ticket.CELLS; cell++) {
+                if (cellSlots[t * Ticket.CELLS + cell] != 0) {
+                    postingCounts[ticket.getCell(cell)]++;
+                }
+            }
+        }
+        int claimableCount = 0;
+        for (boolean slotClaimable : claimable) {
+            claimableCount += slotClaimable ? 1 : 0;
+        }
+        this.claimableSlots = claimableCount;
+
+        // Lay the postings out number by number in flat arrays
+        this.postingStart = new int[TicketIndex.MAX_NUMBER + 2];
+        for (int n = 1; n <= TicketIndex.MAX_NUMBER; n++) {
+            postingStart[n + 1] = postingStart[n] + postingCounts[n];
+        }
+        this.postingTicket = new int[postingStart[TicketIndex.MAX_NUMBER + 1]];
+        this.postingSlots = new long[postingTicket.length];
+        int[] next = Arrays.copyOf(postingStart, postingStart.length);
+        for (int t = 0; t < ticketCount; t++) {
+            Ticket ticket = tickets.get(t);
+            for (int cell = 0; cell < Ticket.CELLS; cell++) {
+                long slotMask = cellSlots[t * Ticket.CELLS + cell];
+                if (slotMask != 0) {
+                    int posting = next[ticket.getCell(cell)]++;
+                    postingTicket[posting] = t;
+                    postingSlots[posting] = slotMask;
+                }
+            }
+        }
+
+        int count = 0;
+        int[] numbers = new int[TicketIndex.MAX_NUMBER];
+        for (int n = 1; n <= TicketIndex.MAX_NUMBER; n++) {
+            if (!calledNumbers.contains(n)) {
+                numbers[count++] = n;
+            }
+        }
+        this.remainingNumbers = Arrays.copyOf(numbers, count);
+    }
+
+    private static boolean isClaimed(List<Ticket> tickets, int pattern) {
+        for (Ticket ticket : tickets) {
+            if (ticket.isPatternComplete(pattern)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sets the 95% confidence half-width every claim probability must reach
+     */
+    public void setMargin(double margin) {
+        this.margin = margin;
+    }
+
+    public void setTimeBudgetMillis(long timeBudgetMillis) {
+        this.timeBudgetMillis = timeBudgetMillis;
+    }
+
+    /**
+     * Runs simulations until the margin or the time budget is reached
+     */
+    public Result estimate(long seed) {
+        int slots = patterns.length;
+        double[] wins = new double[slots * ticketCount];
+        long[] calls = new long[slots];
+        long[] claimed = new long[slots];
+        if (slots == 0 || ticketCount == 0) {
+            return buildResult(wins, calls, claimed, 0);
+        }
+
+        ForkJoinPool pool = getPool();
+        SplittableRandom random = new SplittableRandom(seed);
+        int roundSize = pool.getParallelism() * LEAF_SIMULATIONS;
+        Deadline deadline = new Deadline(System.nanoTime() + timeBudgetMillis * 1_000_000L);
+        int simulations = 0;
+
+        while (simulations < MAX_SIMULATIONS) {
+            Tally tally = runRound(pool, new SimulationTask(roundSize, random.split(), deadline), deadline);
+            tally.addTo(wins, calls, claimed);
+            simulations += tally.simulations;
+            if (tally.simulations < roundSize || deadline.isReached()) {
+                break;
+            }
+            if (simulations >= MIN_SIMULATIONS && isWithinMargin(wins, simulations)) {
+                break;
+            }
+        }
+        return buildResult(wins, calls, claimed, simulations);
+    }
+
+    // Waits for a round; an interrupt cancels it and keeps what it had done
+    private Tally runRound(ForkJoinPool pool, SimulationTask task, Deadline deadline) {
+        ForkJoinTask<Tally> round = pool.submit(task);
+        try {
+            return round.get();
+        } catch (InterruptedException e) {
+            deadline.cancel();
+            Tally tally = round.join();
+            Thread.currentThread().interrupt();
+            return tally;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation failed", e.getCause());
+        }
+    }
+
+    // True once the widest 95% interval over all claim probabilities fits the margin
+    private boolean isWithinMargin(double[] wins, int simulations) {
+        double maxVariance = 0;
+        for (double win : wins) {
+            double p = win / simulations;
+            maxVariance = Math.max(maxVariance, p * (1 - p));
+        }
+        return Z_95 * Math.sqrt(maxVariance / simulations) <= margin;
+    }
+
+    private Result buildResult(double[] wins, long[] calls, long[] claimed, int simulations) {
+        double[] probability = new double[wins.length];
+        for (int i = 0; i < wins.length && simulations > 0; i++) {
+            probability[i] = wins[i] / simulations;
+        }
+        double[] expected = new double[patterns.length];
+        for (int k = 0; k < patterns.length; k++) {
+            expected[k] = claimed[k] == 0 ? Double.NaN : (double) calls[k] / claimed[k];
+        }
+        return new Result(patterns.clone(), ticketCount, probability, expected, simulations);
+    }
+
+    private static synchronized ForkJoinPool getPool() {
+        if (pool == null) {
+            pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        }
+        return pool;
+    }
+
+    // End of the time budget, or earlier if cancelled
+    private static final class Deadline {
+        final long nanos;
+        volatile boolean cancelled;
+
+        Deadline(long nanos) {
+            this.nanos = nanos;
+        }
+
+        void cancel() {
+            cancelled = true;
+        }
+
+        boolean isReached() {
+            return cancelled || System.nanoTime() - nanos >= 0;
+        }
+    }
+
+    // Totals from a batch of simulations
+    private final class Tally {
+        final double[] wins = new double[patterns.length * ticketCount];
+        final long[] calls = new long[patterns.length];
+        final long[] claimed = new long[patterns.length];
+        int simulations;
+
+        void add(Tally other) {
+            other.addTo(wins, calls, claimed);
+            simulations += other.simulations;
+        }
+
+        void addTo(double[] wins, long[] calls, long[] claimed) {
+            for (int i = 0; i < wins.length; i++) {
+                wins[i] += this.wins[i];
+            }
+            for (int k = 0; k < calls.length; k++) {
+                calls[k] += this.calls[k];
+                claimed[k] += this.claimed[k];
+            }
+        }
+    }
+
+    // Splits a batch in halves, each with its own generator, down to leaves
+    private final class SimulationTask extends RecursiveTask<Tally> {
+        private static final long serialVersionUID = 1L;
+
+        private final int count;
+        private final SplittableRandom random;
+        private final Deadline deadline;
+
+        SimulationTask(int count, SplittableRandom random, Deadline deadline) {
+            this.count = count;
+            this.random = random;
+            this.deadline = deadline;
+        }
+
+        @Override
+        protected Tally compute() {
+            if (count <= LEAF_SIMULATIONS) {
+                return new Simulator(random).run(count, deadline);
+            }
+            int half = count / 2;
+            SimulationTask left = new SimulationTask(half, random.split(), deadline);
+            SimulationTask right = new SimulationTask(count - half, random, deadline);
+            left.fork();
+            Tally tally = right.compute();
+            tally.add(left.join());
+            return tally;
+        }
+    }
+
+    // Plays out the rest of the game repeatedly using preallocated scratch space
+    private final class Simulator {
+        private final SplittableRandom random;
+        private final int[] order = remainingNumbers.clone();
+        private final int[] left = needed.clone();
+        // Entries of left a simulation changed, so only those are reset
+        private final int[] touched = new int[needed.length];
+        private int touchedCount;
+        private final int[] best = new int[patterns.length];
+        private final int[] ties = new int[patterns.length];
+        private final int[] winners = new int[patterns.length * ticketCount]; // [slot * tickets + tie]
+
+        Simulator(SplittableRandom random) {
+            this.random = random;
+        }
+
+        // Stops early once the deadline is reached
+        Tally run(int count, Deadline deadline) {
+            Tally tally = new Tally();
+            for (int i = 0; i < count && !deadline.isReached(); i++) {
+                simulate(tally);
+                tally.simulations++;
+            }
+            return tally;
+        }
+
+        // Draws numbers one at a time and only visits the cells holding each,
+        // stopping once every prize that can still be won has been claimed
+        private void simulate(Tally tally) {
+            int slots = patterns.length;
+            for (int i = 0; i < touchedCount; i++) {
+                left[touched[i]] = needed[touched[i]];
+            }
+            touchedCount = 0;
+            for (int k = 0; k < slots; k++) {
+                best[k] = NEVER;
+                ties[k] = 0;
+            }
+
+            int claimedSlots = 0;
+            for (int i = 0; i < order.length && claimedSlots < claimableSlots; i++) {
+                // Fisher-Yates step, so only the numbers actually drawn are shuffled
+                int j = i + random.nextInt(order.length - i);
+                int number = order[j];
+                order[j] = order[i];
+                order[i] = number;
+
+                int time = i + 1;
+                for (int posting = postingStart[number]; posting < postingStart[number + 1]; posting++) {
+                    int t = postingTicket[posting];
+                    for (long bits = postingSlots[posting]; bits != 0; bits &= bits - 1) {
+                        int k = Long.numberOfTrailingZeros(bits);
+                        int entry = t * slots + k;
+                        if (left[entry] == needed[entry]) {
+                            touched[touchedCount++] = entry;
+                        }
+                        if (--left[entry] != 0) {
+                            continue;
+                        }
+                        if (best[k] == NEVER) {
+                            best[k] = time;
+                            claimedSlots++;
+                        }
+                        if (best[k] == time) {
+                            winners[k * ticketCount + ties[k]++] = t;
+                        }
+                    }
+                }
+            }
+
+            for (int k = 0; k < slots; k++) {
+                if (best[k] == NEVER) {
+                    continue;
+                }
+                tally.calls[k] += best[k];
+                tally.claimed[k]++;
+                double share = 1.0 / ties[k];
+                for (int w = 0; w < ties[k]; w++) {
+                    tally.wins[k * ticketCount + winners[k * ticketCount + w]] += share;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.housie_app;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Incremental win detection for a game in progress.
+ * Keeps, per ticket and pattern, the number of cells still needed and only
+ * decrements the counters touched by each newly marked cell, so a call costs
+ * roughly the number of affected cells rather than a full re-check of the book.
+ * Only the patterns enabled for the game are tracked, and a pattern closed
+ * after being claimed stops being evaluated for every ticket.
+ * The tickets that gained marks are also collected so the screen can
+ * redraw just those.
+ */
+public class WinTracker implements TicketIndex.OnCellMarkedListener {
+
+    public static final class WinEvent {
+        public final Ticket ticket;
+        public final int position;
+        public final int pattern;
+
+        WinEvent(Ticket ticket, int position, int pattern) {
+            this.ticket = ticket;
+            this.position = position;
+            this.pattern = pattern;
+        }
+
+        public WinningPattern getPattern() {
+            return PatternRegistry.getDefault().get(pattern);
+        }
+    }
+
+    /**
+     * Cells newly marked on one ticket by a call
+     */
+    public static final class MarkChange {
+        public final int position;
+        public final int cells;
+
+        MarkChange(int position, int cells) {
+            this.position = position;
+            this.cells = cells;
+        }
+    }
+
+    private static final class TicketWins {
+        final int position;
+        final long[] cellPatterns = new long[Ticket.CELLS]; // patterns each cell contributes to
+        final int[] remaining; // cells still needed per pattern
+        long announced; // patterns already reported for this ticket
+        int changedCells; // cells marked since the last drainChanges()
+
+        TicketWins(Ticket ticket, int position, int patternCount, long enabledPatterns) {
+            this.position = position;
+            this.remaining = new int[patternCount];
+            int marked = ticket.getMarkedMask();
+            for (int p = 0; p < patternCount; p++) {
+                if ((enabledPatterns & (1L << p)) == 0) {
+                    continue;
+                }
+                int mask = ticket.getPatternMask(p);
+                remaining[p] = ticket.getPatternRequired(p) - Integer.bitCount(marked & mask);
+                if (remaining[p] <= 0) {
+                    // Completed before this game started, nothing left to announce
+                    announced |= 1L << p;
+                }
+                for (int bits = mask; bits != 0; bits &= bits - 1) {
+                    cellPatterns[Integer.numberOfTrailingZeros(bits)] |= 1L << p;
+                }
+            }
+        }
+    }
+
+    private final Map<Ticket, TicketWins> states = new IdentityHashMap<>();
+    private final List<WinEvent> events = new ArrayList<>();
+    private final List<TicketWins> changed = new ArrayList<>();
+    private long activePatterns;
+
+    public WinTracker(List<Ticket> tickets) {
+        this(tickets, -1L);
+    }
+
+    public WinTracker(List<Ticket> tickets, long enabledPatterns) {
+        int patternCount = PatternRegistry.getDefault().size();
+        this.activePatterns = enabledPatterns;
+        for (int i = 0; i < tickets.size(); i++) {
+            Ticket ticket = tickets.get(i);
+            states.put(ticket, new TicketWins(ticket, i, patternCount, enabledPatterns));
+        }
+    }
+
+    /**
+     * Stops evaluating a pattern for the rest of the game once its prize is claimed
+     */
+    public void closePattern(int pattern) {
+        activePatterns &= ~(1L << pattern);
+    }
+
+    /**
+     * Reverses closePattern. Marks made while the pattern was closed didn't
+     * touch its counters, so they must have been unmarked again first.
+     */
+    public void reopenPattern(int pattern) {
+        activePatterns |= 1L << pattern;
+    }
+
+    public boolean isPatternActive(int pattern) {
+        return (activePatterns & (1L << pattern)) != 0;
+    }
+
+    /**
+     * Patterns a ticket's wins count against: the prizes still open, plus the
+     * ones it completed before they were closed. A prize closed by another
+     * ticket's claim doesn't count for tickets completing it later.
+     */
+    public long getPrizePatterns(Ticket ticket) {
+        TicketWins state = states.get(ticket);
+        return state == null ? activePatterns : activePatterns | state.announced;
+    }
+
+    @Override
+    public void onCellMarked(Ticket ticket, int cell) {
+        TicketWins state = states.get(ticket);
+        if (state == null) {
+            return;
+        }
+        if (state.changedCells == 0) {
+            changed.add(state);
+        }
+        state.changedCells |= 1 << cell;
+        long patterns = state.cellPatterns[cell] & activePatterns;
+        while (patterns != 0) {
+            int p = Long.numberOfTrailingZeros(patterns);
+            patterns &= patterns - 1;
+            if (--state.remaining[p] == 0 && (state.announced & (1L << p)) == 0) {
+                state.announced |= 1L << p;
+                events.add(new WinEvent(ticket, state.position, p));
+            }
+        }
+    }
+
+    /**
+     * Reverses onCellMarked for a cell whose mark is being undone. A pattern
+     * that drops back below complete can be announced again.
+     */
+    @Override
+    public void onCellUnmarked(Ticket ticket, int cell) {
+        TicketWins state = states.get(ticket);
+        if (state == null) {
+            return;
+        }
+        long patterns = state.cellPatterns[cell] & activePatterns;
+        while (patterns != 0) {
+            int p = Long.numberOfTrailingZeros(patterns);
+            patterns &= patterns - 1;
+            if (++state.remaining[p] == 1) {
+                state.announced &= ~(1L << p);
+            }
+        }
+    }
+
+    /**
+     * Returns the patterns completed since the last call and clears them
+     */
+    public List<WinEvent> drainEvents() {
+        if (events.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<WinEvent> completed = new ArrayList<>(events);
+        events.clear();
+        return completed;
+    }
+
+    /**
+     * Returns the tickets that gained marks since the last call and clears them
+     */
+    public List<MarkChange> drainChanges() {
+        List<MarkChange> changes = new ArrayList<>(changed.size());
+        for (TicketWins state : changed) {
+            changes.add(new MarkChange(state.position, state.changedCells));
+            state.changedCells = 0;
+        }
+        changed.clear();
+        return changes;
+    }
+}
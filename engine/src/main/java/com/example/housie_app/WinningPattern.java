@@ -0,0 +1,289 @@
+package com.example.housie_app;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A winning pattern declared as data: a set of cell selectors whose union
+ * must be marked, or any N numbers of that union for "quick" style prizes.
+ * Each pattern compiles against a ticket layout into a cell mask and a
+ * required count, so evaluating it is a single masked popcount.
+ */
+public final class WinningPattern {
+
+    /** Required count for a pattern the ticket layout can never complete */
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    public enum Category {
+        BASIC("Basic Patterns"),
+        RANGE("Number Range Patterns"),
+        POSITION("Position Patterns"),
+        QUICK("Quick Patterns"),
+        LINES("Line Combinations"),
+        HOUSE("House Rules");
+
+        private final String title;
+
+        Category(String title) {
+            this.title = title;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+    }
+
+    /**
+     * Selects cells of a ticket layout. Positional selectors work on a row,
+     * range selectors on the numbers themselves.
+     */
+    public static final class Selector {
+        enum Kind { ROW, POSITION, FIRST, LAST, MIDDLE, RANGE }
+
+        final Kind kind;
+        final int row;
+        final int a;
+        final int b;
+        final boolean strict;
+
+        private Selector(Kind kind, int row, int a, int b, boolean strict) {
+            this.kind = kind;
+            this.row = row;
+            this.a = a;
+            this.b = b;
+            this.strict = strict;
+        }
+
+        /** Every number in the row */
+        public static Selector row(int row) {
+            return new Selector(Kind.ROW, row, 0, 0, false);
+        }
+
+        /** The number at a fixed column of the row, if that cell holds one */
+        public static Selector position(int row, int col) {
+            return new Selector(Kind.POSITION, row, col, 0, false);
+        }
+
+        /** The first count numbers of the row, or as many as it holds */
+        public static Selector first(int row, int count) {
+            return new Selector(Kind.FIRST, row, count, 0, false);
+        }
+
+        /** The last count numbers of the row, or as many as it holds */
+        public static Selector last(int row, int count) {
+            return new Selector(Kind.LAST, row, count, 0, false);
+        }
+
+        /** The first count numbers of the row; unreachable if it holds fewer */
+        public static Selector firstExactly(int row, int count) {
+            return new Selector(Kind.FIRST, row, count, 0, true);
+        }
+
+        /** The last count numbers of the row; unreachable if it holds fewer */
+        public static Selector lastExactly(int row, int count) {
+            return new Selector(Kind.LAST, row, count, 0, true);
+        }
+
+        /** The middle count (1 or 3) numbers of the row */
+        public static Selector middle(int row, int count) {
+            return new Selector(Kind.MIDDLE, row, count, 0, false);
+        }
+
+        /** Every number between from and to inclusive, anywhere on the ticket */
+        public static Selector range(int from, int to) {
+            return new Selector(Kind.RANGE, 0, from, to, false);
+        }
+
+        /**
+         * Returns the selected cells of the layout, or -1 if the selector
+         * can never be satisfied by it
+         */
+        int compile(byte[] cells) {
+            switch (kind) {
+                case ROW:
+                    return rowMask(cells, row);
+                case POSITION: {
+                    int cell = Ticket.cellIndex(row, a);
+                    return cells[cell] != 0 ? 1 << cell : 0;
+                }
+                case FIRST:
+                case LAST: {
+                    int rowMask = rowMask(cells, row);
+                    if (strict && Integer.bitCount(rowMask) < a) {
+                        return -1;
+                    }
+                    return kind == Kind.FIRST ? lowest(rowMask, a) : highest(rowMask, a);
+                }
+                case MIDDLE: {
+                    int rowMask = rowMask(cells, row);
+                    int total = Integer.bitCount(rowMask);
+                    if (total < a) return 0; // Not enough numbers
+                    // The middle number sits at index total / 2, a wider middle is centred on it
+                    int start = total / 2 - a / 2;
+                    return lowest(rowMask, start + a) & highest(rowMask, total - start);
+                }
+                case RANGE: {
+                    int mask = 0;
+                    for (int cell = 0; cell < Ticket.CELLS; cell++) {
+                        if (cells[cell] >= a && cells[cell] <= b) {
+                            mask |= 1 << cell;
+                        }
+                    }
+                    return mask;
+                }
+                default:
+                    return 0;
+            }
+        }
+
+        private static int rowMask(byte[] cells, int row) {
+            int mask = 0;
+            for (int j = 0; j < Ticket.COLS; j++) {
+                int cell = Ticket.cellIndex(row, j);
+                if (cells[cell] != 0) {
+                    mask |= 1 << cell;
+                }
+            }
+            return mask;
+        }
+
+        // Lowest count set bits of mask
+        private static int lowest(int mask, int count) {
+            int result = 0;
+            for (int i = 0; i < count && mask != 0; i++) {
+                int bit = Integer.lowestOneBit(mask);
+                result |= bit;
+                mask &= ~bit;
+            }
+            return result;
+        }
+
+        // Highest count set bits of mask
+        private static int highest(int mask, int count) {
+            int result = 0;
+            for (int i = 0; i < count && mask != 0; i++) {
+                int bit = Integer.highestOneBit(mask);
+                result |= bit;
+                mask &= ~bit;
+            }
+            return result;
+        }
+    }
+
+    private final String name;
+    private final String emoji;
+    private final String description;
+    private final Category category;
+    private final List<Selector> selectors;
+    private final int anyCount;
+
+    private WinningPattern(Builder builder) {
+        this.name = builder.name;
+        this.emoji = builder.emoji;
+        this.description = builder.description;
+        this.category = builder.category;
+        this.selectors = Collections.unmodifiableList(new ArrayList<>(builder.selectors));
+        this.anyCount = builder.anyCount;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getEmoji() {
+        return emoji;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Category getCategory() {
+        return category;
+    }
+
+    /**
+     * Returns the cells of the layout this pattern covers, or -1 if the layout
+     * can never complete it
+     */
+    public int compileMask(byte[] cells) {
+        int mask = 0;
+        for (Selector selector : selectors) {
+            int selected = selector.compile(cells);
+            if (selected == -1) {
+                return -1;
+            }
+            mask |= selected;
+        }
+        return mask;
+    }
+
+    /**
+     * Returns how many cells of the compiled mask must be marked
+     */
+    public int requiredCount(int mask) {
+        if (mask == -1) {
+            return UNREACHABLE;
+        }
+        return anyCount > 0 ? anyCount : Integer.bitCount(mask);
+    }
+
+    public static Builder builder(String name) {
+        return new Builder(name);
+    }
+
+    public static final class Builder {
+        private final String name;
+        private String emoji = "🎉";
+        private String description = "";
+        private Category category = Category.HOUSE;
+        private final List<Selector> selectors = new ArrayList<>();
+        private int anyCount;
+
+        private Builder(String name) {
+            this.name = name;
+        }
+
+        public Builder emoji(String emoji) {
+            this.emoji = emoji;
+            return this;
+        }
+
+        public Builder description(String description) {
+            this.description = description;
+            return this;
+        }
+
+        public Builder category(Category category) {
+            this.category = category;
+            return this;
+        }
+
+        public Builder select(Selector... selectors) {
+            Collections.addAll(this.selectors, selectors);
+            return this;
+        }
+
+        /** Every number in each of the given rows */
+        public Builder rows(int... rows) {
+            for (int row : rows) {
+                selectors.add(Selector.row(row));
+            }
+            return this;
+        }
+
+        /** Any count numbers among the selected cells (the whole ticket if none are selected) */
+        public Builder any(int count) {
+            this.anyCount = count;
+            return this;
+        }
+
+        public WinningPattern build() {
+            if (selectors.isEmpty()) {
+                rows(0, 1, 2);
+            }
+            return new WinningPattern(this);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.housie_app;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GameEngineTest {
+    private static final byte[] LAYOUT = {
+            1, 0, 20, 0, 40, 0, 60, 0, 80,
+            0, 11, 0, 31, 0, 51, 0, 71, 81,
+            2, 12, 21, 0, 41, 0, 61, 0, 0,
+    };
+    // The same top line with another centre and bottom row
+    private static final byte[] OTHER = {
+            1, 0, 20, 0, 40, 0, 60, 0, 80,
+            3, 13, 0, 33, 0, 53, 0, 73, 0,
+            0, 14, 23, 0, 43, 0, 63, 0, 83,
+    };
+    private static final int[] TOP_LINE = {1, 20, 40, 60, 80};
+
+    private final PatternRegistry registry = PatternRegistry.getDefault();
+    private final int topLine = registry.indexOf("Top Line");
+    private final int centreLine = registry.indexOf("Centre Line");
+    private final Ticket first = new Ticket("T1", LAYOUT, 0);
+    private final Ticket second = new Ticket("T2", OTHER, 0);
+    private final List<Ticket> tickets = Arrays.asList(first, second);
+
+    @Test
+    public void onlyEnabledPatternsAreWon() {
+        GameEngine engine = new GameEngine(1L << centreLine);
+        engine.load(tickets);
+        for (int number : TOP_LINE) {
+            assertTrue(engine.callNumber(number).isEmpty());
+        }
+        assertTrue(engine.getWinningTickets().isEmpty());
+        assertFalse(engine.isPatternActive(topLine));
+    }
+
+    @Test
+    public void closedPattern_isNotWonByLaterTickets() {
+        GameEngine engine = new GameEngine((1L << topLine) | (1L << centreLine));
+        engine.load(Arrays.asList(first, new Ticket("T3", LAYOUT, 0)));
+        for (int number : new int[] {11, 31, 51, 71}) {
+            engine.callNumber(number);
+        }
+        List<WinTracker.WinEvent> events = engine.callNumber(81);
+        assertEquals(2, events.size());
+        engine.closePattern(centreLine);
+        assertFalse(engine.isPatternActive(centreLine));
+        assertTrue(engine.isPatternActive(topLine));
+        // Both claimants keep the prize they completed before it closed
+        assertEquals(2, engine.getWinningTickets().size());
+
+        // Top line still plays
+        for (int number : new int[] {1, 20, 40, 60}) {
+            engine.callNumber(number);
+        }
+        assertEquals(2, engine.callNumber(80).size());
+        assertEquals(4, engine.getWins().size());
+    }
+
+    @Test
+    public void closedPattern_staysWithItsClaimant() {
+        GameEngine engine = new GameEngine((1L << topLine) | (1L << centreLine));
+        engine.load(tickets);
+        for (int number : new int[] {11, 31, 51, 71}) {
+            engine.callNumber(number);
+        }
+        List<WinTracker.WinEvent> events = engine.callNumber(81);
+        assertEquals(1, events.size());
+        assertSame(first, events.get(0).ticket);
+        engine.closePattern(centreLine);
+
+        // The other ticket completes its centre line after the close
+        for (int number : new int[] {3, 13, 33, 53}) {
+            engine.callNumber(number);
+        }
+        assertTrue(engine.callNumber(73).isEmpty());
+        assertTrue(second.isPatternComplete(centreLine));
+        assertEquals((1L << centreLine) | (1L << topLine), engine.getPrizePatterns(first));
+        assertEquals(Arrays.asList(first), engine.getWinningTickets());
+        assertFalse(second.getWinResult(engine.getPrizePatterns(second)).hasWins());
+    }
+
+    @Test
+    public void undo_takesBackTheLastCall() {
+        GameEngine engine = new GameEngine(1L << topLine);
+        engine.load(tickets);
+        assertEquals(-1, engine.undo());
+        for (int number : TOP_LINE) {
+            engine.callNumber(number);
+        }
+        assertEquals(2, engine.getWins().size());
+
+        assertEquals(80, engine.undo());
+        assertFalse(engine.isCalled(80));
+        assertTrue(engine.getWins().isEmpty());
+        assertFalse(first.isPatternComplete(topLine));
+        // The number can be called again and wins again
+        assertEquals(2, engine.callNumber(80).size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void calledNumber_cannotBeCalledAgain() {
+        GameEngine engine = new GameEngine(1L << topLine);
+        engine.load(tickets);
+        engine.callNumber(1);
+        engine.callNumber(1);
+    }
+
+    @Test
+    public void listeners_hearMarksUnmarksAndCloses() {
+        GameEngine engine = new GameEngine(1L << topLine);
+        engine.load(tickets);
+        List<String> heard = new ArrayList<>();
+        engine.addCellMarkedListener(new TicketIndex.OnCellMarkedListener() {
+            @Override
+            public void onCellMarked(Ticket ticket, int cell) {
+                heard.add("mark " + ticket.getTicketId() + " " + ticket.getCell(cell));
+            }
+
+            @Override
+            public void onCellUnmarked(Ticket ticket, int cell) {
+                heard.add("unmark " + ticket.getTicketId() + " " + ticket.getCell(cell));
+            }
+
+            @Override
+            public void onPatternClosed(int pattern) {
+                heard.add("close " + pattern);
+            }
+
+            @Override
+            public void onPatternReopened(int pattern) {
+                heard.add("reopen " + pattern);
+            }
+        });
+        engine.callNumber(11);
+        engine.closePattern(topLine);
+        engine.closePattern(topLine);
+        engine.undo();
+        assertEquals(Arrays.asList("mark T1 11", "close " + topLine, "reopen " + topLine, "unmark T1 11"),
+                heard);
+    }
+
+    @Test
+    public void undo_reopensPatternsClosedAfterTheCall() {
+        GameEngine engine = new GameEngine(1L << topLine);
+        engine.load(tickets);
+        NearWinTracker nearWins = new NearWinTracker(tickets, 1L << topLine);
+        engine.addCellMarkedListener(nearWins);
+        for (int number : new int[] {1, 20, 40, 60}) {
+            engine.callNumber(number);
+        }
+        engine.closePattern(topLine);
+        // Marks made while closed are skipped on the way in and on the way back
+        engine.callNumber(80);
+        assertEquals(0, nearWins.getDistance(first));
+        engine.undo();
+        assertFalse(engine.isPatternActive(topLine));
+
+        engine.undo();
+        assertTrue(engine.isPatternActive(topLine));
+        assertEquals(2, nearWins.getDistance(first));
+        engine.callNumber(60);
+        assertEquals(2, nearWins.getCompletedBy(80).size());
+        assertEquals(2, engine.callNumber(80).size());
+        assertEquals(0, nearWins.getDistance(second));
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.housie_app;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class NearWinTrackerTest {
+    private static final byte[] LAYOUT = {
+            1, 0, 20, 0, 40, 0, 60, 0, 80,
+            0, 11, 0, 31, 0, 51, 0, 71, 81,
+            2, 12, 21, 0, 41, 0, 61, 0, 0,
+    };
+    // The same top line with another centre and bottom row
+    private static final byte[] OTHER = {
+            1, 0, 20, 0, 40, 0, 60, 0, 80,
+            3, 13, 0, 33, 0, 53, 0, 73, 0,
+            0, 14, 23, 0, 43, 0, 63, 0, 83,
+    };
+
+    private final PatternRegistry registry = PatternRegistry.getDefault();
+    private final int topLine = registry.indexOf("Top Line");
+    private final int centreLine = registry.indexOf("Centre Line");
+    private final int quick12 = registry.indexOf("Quick-12");
+    private final Ticket first = new Ticket("T1", LAYOUT, 0);
+    private final Ticket second = new Ticket("T2", OTHER, 0);
+    private final List<Ticket> tickets = Arrays.asList(first, second);
+    private final TicketIndex index = new TicketIndex();
+
+    public NearWinTrackerTest() {
+        for (Ticket ticket : tickets) {
+            index.add(ticket);
+        }
+    }
+
+    @Test
+    public void distance_countsDownToTheCompletingNumber() {
+        NearWinTracker tracker = new NearWinTracker(tickets, 1L << topLine);
+        assertEquals(5, tracker.getDistance(first));
+        call(tracker, 1, 20, 40);
+        assertEquals(2, tracker.getDistance(first));
+        assertEquals(Collections.singletonList(topLine), tracker.getPatternsAtDistance(first, 2));
+        assertTrue(tracker.getCompletedBy(80).isEmpty());
+
+        call(tracker, 60);
+        List<NearWinTracker.NearWin> nearWins = tracker.getCompletedBy(80);
+        assertEquals(2, nearWins.size());
+        for (NearWinTracker.NearWin nearWin : nearWins) {
+            assertEquals(topLine, nearWin.pattern);
+            assertArrayEquals(new int[] {80}, nearWin.numbers);
+        }
+
+        // Completed prizes drop out of the ranking
+        call(tracker, 80);
+        assertEquals(0, tracker.getDistance(first));
+        assertTrue(tracker.getCompletedBy(80).isEmpty());
+        assertTrue(tracker.getClosestTickets(5).isEmpty());
+    }
+
+    @Test
+    public void closestTickets_rankByDistanceThenPosition() {
+        NearWinTracker tracker = new NearWinTracker(tickets, 1L << centreLine);
+        call(tracker, 11, 31);
+        assertEquals(Collections.singletonList(first), tracker.getClosestTickets(1));
+        assertEquals(Arrays.asList(first, second), tracker.getClosestTickets(5));
+
+        call(tracker, 3, 13, 33);
+        assertEquals(2, tracker.getDistance(second));
+        assertEquals(Arrays.asList(second, first), tracker.getClosestTickets(5));
+
+        call(tracker, 51);
+        assertEquals(Arrays.asList(first, second), tracker.getClosestTickets(5));
+    }
+
+    @Test
+    public void marksBeforeTheGame_count() {
+        first.markNumber(11);
+        first.markNumber(31);
+        first.markNumber(51);
+        NearWinTracker tracker = new NearWinTracker(tickets, 1L << centreLine);
+        assertEquals(2, tracker.getDistance(first));
+        assertEquals(5, tracker.getDistance(second));
+    }
+
+    @Test
+    public void outstandingNumbers_areTheUnmarkedOnes() {
+        call(null, 1, 20);
+        assertArrayEquals(new int[] {40, 60, 80}, NearWinTracker.getOutstandingNumbers(first, topLine));
+    }
+
+    @Test
+    public void closedPattern_isNoLongerTracked() {
+        NearWinTracker tracker = new NearWinTracker(tickets, (1L << topLine) | (1L << centreLine));
+        call(tracker, 1, 20, 40, 60);
+        assertEquals(1, tracker.getDistance(first));
+
+        tracker.closePattern(topLine);
+        assertTrue(tracker.getCompletedBy(80).isEmpty());
+        assertEquals(5, tracker.getDistance(first));
+        assertTrue(tracker.getPatternsAtDistance(first, 1).isEmpty());
+
+        // Closing twice, or marking the closed pattern further, changes nothing
+        tracker.closePattern(topLine);
+        call(tracker, 80);
+        assertEquals(5, tracker.getDistance(first));
+    }
+
+    @Test
+    public void unmarkedCell_movesTheTicketBack() {
+        NearWinTracker tracker = new NearWinTracker(tickets, 1L << topLine);
+        call(tracker, 1, 20, 40, 60);
+        uncall(tracker, 60);
+        assertEquals(2, tracker.getDistance(first));
+        assertTrue(tracker.getCompletedBy(80).isEmpty());
+        assertEquals(Collections.singletonList(topLine), tracker.getPatternsAtDistance(first, 2));
+    }
+
+    @Test
+    public void unmarkedCell_recountsPatternsNeedingFewerCells() {
+        NearWinTracker tracker = new NearWinTracker(Collections.singletonList(first), 1L << quick12);
+        // 13 of the 15 numbers, one more than Quick-12 needs
+        call(tracker, 1, 20, 40, 60, 80, 11, 31, 51, 71, 81, 2, 12, 21);
+        assertEquals(0, tracker.getDistance(first));
+
+        uncall(tracker, 21);
+        assertEquals(0, tracker.getDistance(first));
+        uncall(tracker, 12);
+        assertEquals(1, tracker.getDistance(first));
+        assertEquals(1, tracker.getCompletedBy(41).size());
+    }
+
+    private void call(NearWinTracker tracker, int... numbers) {
+        for (int number : numbers) {
+            index.markNumber(number, tracker);
+        }
+    }
+
+    private void uncall(NearWinTracker tracker, int number) {
+        for (Ticket ticket : tickets) {
+            for (int cell = 0; cell < Ticket.CELLS; cell++) {
+                if (ticket.getCell(cell) == number && ticket.isCellMarked(cell)) {
+                    ticket.unmarkCell(cell);
+                    tracker.onCellUnmarked(ticket, cell);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.housie_app;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RowClustererTest {
+    private static final float CELL_WIDTH = 60f;
+    private static final float CELL_HEIGHT = 50f;
+    private static final float TEXT_HEIGHT = 30f;
+
+    private final Ticket ticket = new StripGenerator(3).generate(1).get(0);
+    private final float[] centreX = new float[StripGenerator.NUMBERS_PER_TICKET];
+    private final float[] centreY = new float[StripGenerator.NUMBERS_PER_TICKET];
+    private final float[] heights = new float[StripGenerator.NUMBERS_PER_TICKET];
+    private final int[] rowOf = new int[StripGenerator.NUMBERS_PER_TICKET];
+
+    @Test
+    public void tiltedDown_rowsFollowTheTilt() {
+        assertRowsFound(0.08f);
+    }
+
+    @Test
+    public void tiltedUp_rowsFollowTheTilt() {
+        assertRowsFound(-0.08f);
+    }
+
+    @Test
+    public void level_rowsFound() {
+        assertRowsFound(0f);
+    }
+
+    @Test
+    public void nothing_noRows() {
+        RowClusterer clusterer = new RowClusterer(4);
+        assertEquals(0, clusterer.cluster(centreX, centreY, heights, 0));
+        assertEquals(0f, clusterer.getSkew(), 0f);
+    }
+
+    // Over the ticket's width a slope of 0.08 drifts most of a row, so level
+    // clustering would mix the rows
+    private void assertRowsFound(float skew) {
+        int count = 0;
+        for (int cell = 0; cell < Ticket.CELLS; cell++) {
+            if (ticket.getCell(cell) == 0) {
+                continue;
+            }
+            float x = (cell % Ticket.COLS + 0.5f) * CELL_WIDTH;
+            centreX[count] = x;
+            centreY[count] = 100 + (cell / Ticket.COLS + 0.5f) * CELL_HEIGHT + skew * x;
+            heights[count] = TEXT_HEIGHT;
+            rowOf[count] = cell / Ticket.COLS;
+            count++;
+        }
+
+        RowClusterer clusterer = new RowClusterer(count);
+        assertEquals(Ticket.ROWS, clusterer.cluster(centreX, centreY, heights, count));
+        assertEquals(skew, clusterer.getSkew(), 0.005f);
+        for (int row = 0; row < Ticket.ROWS; row++) {
+            assertEquals(StripGenerator.NUMBERS_PER_ROW, clusterer.clusterStart[row + 1] - clusterer.clusterStart[row]);
+            for (int i = clusterer.clusterStart[row]; i < clusterer.clusterStart[row + 1]; i++) {
+                assertEquals(row, rowOf[clusterer.order[i]]);
+            }
+        }
+    }
+}
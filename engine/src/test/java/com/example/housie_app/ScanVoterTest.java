@@ -0,0 +1,99 @@
+package com.example.housie_app;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ScanVoterTest {
+    private static final float CONFIDENCE = 0.9f;
+
+    private final List<Ticket> tickets = new StripGenerator(5).generate(2);
+    private final float[] confidence = new float[Ticket.CELLS];
+
+    public ScanVoterTest() {
+        Arrays.fill(confidence, CONFIDENCE);
+    }
+
+    @Test
+    public void misreadsAreOutvoted() {
+        byte[] truth = tickets.get(0).copyCells();
+        ScanVoter voter = new ScanVoter(10);
+        for (int frame = 0; frame < 6; frame++) {
+            // Every frame gets a different cell wrong, filled or empty
+            byte[] cells = truth.clone();
+            int cell = frame * 4;
+            cells[cell] = (byte) (cells[cell] == 0 ? 99 : 0);
+            assertFalse(voter.addFrame(cells, confidence));
+        }
+        assertTrue(voter.isConverged());
+        assertEquals(0, voter.getUncertainCells());
+        byte[] consensus = new byte[Ticket.CELLS];
+        voter.getConsensus(consensus);
+        assertArrayEquals(truth, consensus);
+    }
+
+    @Test
+    public void oneFrame_doesNotConverge() {
+        ScanVoter voter = new ScanVoter(10);
+        voter.addFrame(tickets.get(0).copyCells(), confidence);
+        assertFalse(voter.isConverged());
+        assertEquals((1 << Ticket.CELLS) - 1, voter.getUncertainCells());
+    }
+
+    @Test
+    public void disagreeingCell_staysUncertain() {
+        byte[] truth = tickets.get(0).copyCells();
+        byte[] misread = truth.clone();
+        int cell = Ticket.cellIndex(1, 4);
+        misread[cell] = 99;
+        ScanVoter voter = new ScanVoter(10);
+        voter.addFrame(truth, confidence);
+        voter.addFrame(misread, confidence);
+        voter.addFrame(truth, confidence);
+        voter.addFrame(misread, confidence);
+        assertEquals(1 << cell, voter.getUncertainCells());
+        assertEquals(0.5f, voter.getAgreement(cell), 1e-6f);
+    }
+
+    @Test
+    public void unconfidentCells_dontVote() {
+        byte[] truth = tickets.get(0).copyCells();
+        float[] unsure = confidence.clone();
+        int cell = Ticket.cellIndex(0, 0);
+        unsure[cell] = 0f;
+        ScanVoter voter = new ScanVoter(10);
+        voter.addFrame(truth, unsure);
+        voter.addFrame(truth, unsure);
+        assertEquals(1 << cell, voter.getUncertainCells());
+        assertEquals(0f, voter.getAgreement(cell), 0f);
+    }
+
+    @Test
+    public void anotherTicket_restartsTheVote() {
+        ScanVoter voter = new ScanVoter(10);
+        voter.addFrame(tickets.get(0).copyCells(), confidence);
+        voter.addFrame(tickets.get(0).copyCells(), confidence);
+        assertTrue(voter.addFrame(tickets.get(1).copyCells(), confidence));
+        assertEquals(1, voter.getFrames());
+        byte[] consensus = new byte[Ticket.CELLS];
+        voter.getConsensus(consensus);
+        assertArrayEquals(tickets.get(1).copyCells(), consensus);
+    }
+
+    @Test
+    public void budget_countsFramesUntilReset() {
+        ScanVoter voter = new ScanVoter(3);
+        byte[] cells = tickets.get(0).copyCells();
+        voter.addFrame(cells, confidence);
+        voter.addFrame(cells, confidence);
+        assertFalse(voter.isBudgetUsed());
+        voter.addFrame(cells, confidence);
+        assertTrue(voter.isBudgetUsed());
+        voter.reset();
+        assertFalse(voter.isBudgetUsed());
+        assertEquals(0, voter.getFrames());
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.housie_app;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SheetSegmenterTest {
+    private static final int CELL_WIDTH = 40;
+    private static final int CELL_HEIGHT = 36;
+    // Space between tickets, across and down, with room for a header
+    private static final int TICKET_SPACING_X = 30;
+    private static final int TICKET_SPACING_Y = 40;
+    private static final float CONFIDENCE = 0.95f;
+
+    private final List<Ticket> strip = new StripGenerator(24).nextStrip();
+    private final SheetSegmenter segmenter = new SheetSegmenter();
+    private final TicketLayoutParser parser = new TicketLayoutParser();
+    private final byte[] cells = new byte[Ticket.CELLS];
+    private final float[] confidence = new float[Ticket.CELLS];
+
+    @Test
+    public void twoByThreeSheet_splitIntoItsTickets() {
+        for (float skew : new float[] {-0.02f, 0f, 0.02f}) {
+            addSheet(skew, -1);
+            assertEquals("skew " + skew, StripGenerator.TICKETS_PER_STRIP, segmenter.segment());
+            assertEquals(StripGenerator.TICKETS_PER_STRIP, segmenter.getTicketCount());
+            // Numbered column by column, top to bottom
+            for (int t = 0; t < StripGenerator.TICKETS_PER_STRIP; t++) {
+                segmenter.feed(t, parser);
+                assertTrue(parser.parse(cells, confidence));
+                assertArrayEquals("skew " + skew + " ticket " + t, strip.get(t).copyCells(), cells);
+            }
+        }
+    }
+
+    @Test
+    public void missingRow_keepsTheOtherColumnInPlace() {
+        // The top row of the right column's first ticket wasn't recognized
+        addSheet(0.01f, 3);
+        assertEquals(StripGenerator.TICKETS_PER_STRIP, segmenter.segment());
+        for (int t = 0; t < StripGenerator.TICKETS_PER_STRIP; t++) {
+            if (t == 3) {
+                continue;
+            }
+            segmenter.feed(t, parser);
+            assertTrue(parser.parse(cells, confidence));
+            assertArrayEquals("ticket " + t, strip.get(t).copyCells(), cells);
+        }
+    }
+
+    @Test
+    public void reset_forgetsTheSheet() {
+        addSheet(0f, -1);
+        segmenter.segment();
+        segmenter.reset();
+        assertEquals(0, segmenter.segment());
+        assertEquals(0, segmenter.getTicketCount());
+    }
+
+    // Adds the strip as two columns of three tickets, each under a header with
+    // its ticket number, leaving out the top row of ticket withoutTopRow
+    private void addSheet(float skew, int withoutTopRow) {
+        segmenter.reset();
+        for (int t = 0; t < StripGenerator.TICKETS_PER_STRIP; t++) {
+            int originX = 20 + (t / Ticket.ROWS) * (Ticket.COLS * CELL_WIDTH + TICKET_SPACING_X);
+            int originY = 60 + (t % Ticket.ROWS) * (Ticket.ROWS * CELL_HEIGHT + TICKET_SPACING_Y);
+            int headerY = originY - TICKET_SPACING_Y / 2 + Math.round(skew * originX);
+            segmenter.addElement("No.", originX, headerY - 8, originX + 30, headerY + 8, 0.9f);
+            segmenter.addElement(Integer.toString(t + 1), originX + 40, headerY - 8, originX + 52, headerY + 8, 0.9f);
+
+            Ticket ticket = strip.get(t);
+            for (int cell = 0; cell < Ticket.CELLS; cell++) {
+                int number = ticket.getCell(cell);
+                if (number == 0 || (t == withoutTopRow && cell < Ticket.COLS)) {
+                    continue;
+                }
+                int x = originX + (cell % Ticket.COLS) * CELL_WIDTH + CELL_WIDTH / 2;
+                int y = originY + (cell / Ticket.COLS) * CELL_HEIGHT + CELL_HEIGHT / 2 + Math.round(skew * x);
+                assertTrue(segmenter.addElement(Integer.toString(number), x - 8, y - 10, x + 8, y + 10, CONFIDENCE));
+            }
+        }
+    }
+}
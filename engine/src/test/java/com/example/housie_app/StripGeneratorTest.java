@@ -0,0 +1,75 @@
+package com.example.housie_app;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class StripGeneratorTest {
+    @Test
+    public void strip_holdsEveryNumberOnce() {
+        StripGenerator generator = new StripGenerator(1);
+        byte[] strip = new byte[StripGenerator.STRIP_CELLS];
+        for (int s = 0; s < 200; s++) {
+            generator.nextStrip(strip, 0);
+            boolean[] seen = new boolean[TicketIndex.MAX_NUMBER + 1];
+            for (byte number : strip) {
+                if (number != 0) {
+                    assertFalse("Number " + number + " dealt twice", seen[number]);
+                    seen[number] = true;
+                }
+            }
+            for (int number = 1; number <= TicketIndex.MAX_NUMBER; number++) {
+                assertTrue("Number " + number + " missing", seen[number]);
+            }
+        }
+    }
+
+    @Test
+    public void tickets_followTheLayoutRules() {
+        StripGenerator generator = new StripGenerator(2);
+        for (Ticket ticket : generator.generate(600)) {
+            int numbers = 0;
+            for (int row = 0; row < Ticket.ROWS; row++) {
+                int inRow = 0;
+                for (int col = 0; col < Ticket.COLS; col++) {
+                    int number = ticket.getCell(Ticket.cellIndex(row, col));
+                    if (number == 0) {
+                        continue;
+                    }
+                    inRow++;
+                    assertTrue(number >= StripGenerator.columnFirst(col));
+                    assertTrue(number <= StripGenerator.columnLast(col));
+                }
+                assertEquals(StripGenerator.NUMBERS_PER_ROW, inRow);
+                numbers += inRow;
+            }
+            assertEquals(StripGenerator.NUMBERS_PER_TICKET, numbers);
+            // Columns rise down the ticket
+            assertTrue(TicketValidator.validate(ticket).getSummary(), TicketValidator.validate(ticket).isValid());
+        }
+    }
+
+    @Test
+    public void sameSeed_sameTickets() {
+        List<Ticket> first = new StripGenerator(42).generate(60);
+        List<Ticket> second = new StripGenerator(42).generate(60);
+        for (int t = 0; t < first.size(); t++) {
+            assertEquals(first.get(t).getTicketId(), second.get(t).getTicketId());
+            assertArrayEquals(first.get(t).copyCells(), second.get(t).copyCells());
+        }
+    }
+
+    @Test
+    public void differentSeed_differentTickets() {
+        List<Ticket> first = new StripGenerator(42).generate(6);
+        List<Ticket> second = new StripGenerator(43).generate(6);
+        boolean differs = false;
+        for (int t = 0; t < first.size(); t++) {
+            differs |= !Arrays.equals(first.get(t).copyCells(), second.get(t).copyCells());
+        }
+        assertTrue(differs);
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.housie_app;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class TicketHashCacheTest {
+    private static final int CELL_SIZE = 24;
+    private static final int MARGIN = 8;
+    private static final int WIDTH = Ticket.COLS * CELL_SIZE + 2 * MARGIN;
+    private static final int HEIGHT = Ticket.ROWS * CELL_SIZE + 2 * MARGIN;
+
+    // Ink grows along every row of the first ticket and shrinks along every
+    // row of the second, which has the same filled cells
+    private static final byte[] RISING = {
+            1, 12, 23, 34, 45, 0, 0, 0, 0,
+            0, 0, 21, 32, 43, 54, 65, 0, 0,
+            0, 0, 0, 0, 41, 52, 63, 74, 85,
+    };
+    private static final byte[] FALLING = {
+            5, 14, 23, 32, 41, 0, 0, 0, 0,
+            0, 0, 25, 34, 43, 52, 61, 0, 0,
+            0, 0, 0, 0, 45, 54, 63, 72, 81,
+    };
+
+    private final int[] scratch = new int[Ticket.CELLS];
+
+    @Test
+    public void sameTicket_foundUnderOtherLighting() {
+        TicketHashCache cache = new TicketHashCache(8);
+        cache.put(hash(render(RISING, 220, 0)), "rising", RISING);
+        assertEquals("rising", cache.find(hash(render(RISING, 190, 1))));
+    }
+
+    @Test
+    public void sameLayoutOtherNumbers_hashApart() {
+        long rising = hash(render(RISING, 220, 0));
+        long falling = hash(render(FALLING, 220, 0));
+        // Only the digits tell them apart
+        assertEquals(rising & ((1L << Ticket.CELLS) - 1), falling & ((1L << Ticket.CELLS) - 1));
+        assertFalse(TicketHashCache.isSameTicket(rising, falling));
+
+        TicketHashCache cache = new TicketHashCache(8);
+        cache.put(rising, "rising", RISING);
+        assertNull(cache.find(falling));
+    }
+
+    @Test
+    public void confirm_needsTheReadingToAgree() {
+        TicketHashCache cache = new TicketHashCache(8);
+        cache.put(1L, "rising", RISING);
+        assertTrue(cache.confirm("rising", RISING));
+        assertFalse(cache.confirm("rising", FALLING));
+        assertFalse(cache.confirm("unknown", RISING));
+
+        // A couple of misread or unread numbers still confirm
+        byte[] reading = RISING.clone();
+        reading[0] = 7;
+        reading[1] = 0;
+        reading[Ticket.cellIndex(1, 2)] = 27;
+        assertTrue(cache.confirm("rising", reading));
+        reading[Ticket.cellIndex(2, 4)] = 47;
+        assertFalse(cache.confirm("rising", reading));
+
+        // Too few numbers read to tell
+        byte[] partial = new byte[Ticket.CELLS];
+        System.arraycopy(RISING, 0, partial, 0, Ticket.COLS);
+        assertFalse(cache.confirm("rising", partial));
+    }
+
+    @Test
+    public void degenerateCrop_neverStoredOrFound() {
+        byte[] grey = render(RISING, 220, 0);
+        long hash = TicketHashCache.hash(grey, WIDTH, 0, 0, Ticket.COLS, Ticket.ROWS * 4, scratch);
+        assertEquals(TicketHashCache.NO_HASH, hash);
+
+        TicketHashCache cache = new TicketHashCache(8);
+        cache.put(TicketHashCache.NO_HASH, "rising", RISING);
+        assertEquals(0, cache.size());
+        cache.put(TicketHashCache.NO_HASH ^ 1L, "rising", RISING);
+        assertNull(cache.find(TicketHashCache.NO_HASH));
+    }
+
+    @Test
+    public void leastRecentlySeen_evicted() {
+        TicketHashCache cache = new TicketHashCache(3);
+        cache.put(0x1L, "a", RISING);
+        cache.put(0x6L, "b", FALLING);
+        cache.put(0x78L, "c", RISING);
+        assertEquals("a", cache.find(0x1L));
+        cache.put(0x780L, "d", FALLING);
+        assertEquals(3, cache.size());
+        assertNull(cache.find(0x6L));
+        assertEquals("a", cache.find(0x1L));
+        // The evicted ticket's numbers went with its last hash
+        assertFalse(cache.confirm("b", FALLING));
+    }
+
+    @Test
+    public void findTicket_matchesExactNumbers() {
+        TicketHashCache cache = new TicketHashCache(8);
+        cache.put(0x1L, "rising", RISING);
+        assertEquals("rising", cache.findTicket(RISING));
+        assertNull(cache.findTicket(FALLING));
+
+        cache.remove("rising");
+        assertEquals(0, cache.size());
+        assertNull(cache.findTicket(RISING));
+    }
+
+    private long hash(byte[] grey) {
+        return TicketHashCache.hash(grey, WIDTH, MARGIN, MARGIN, WIDTH - MARGIN, HEIGHT - MARGIN, scratch);
+    }
+
+    // Paper with a dark block in every filled cell, wider the larger the
+    // number's last digit, offset by shift pixels
+    private static byte[] render(byte[] cells, int paper, int shift) {
+        byte[] grey = new byte[WIDTH * HEIGHT];
+        Arrays.fill(grey, (byte) paper);
+        for (int cell = 0; cell < Ticket.CELLS; cell++) {
+            if (cells[cell] == 0) {
+                continue;
+            }
+            int inkWidth = 6 + cells[cell] % 10;
+            int x0 = MARGIN + shift + (cell % Ticket.COLS) * CELL_SIZE + (CELL_SIZE - inkWidth) / 2;
+            int y0 = MARGIN + shift + (cell / Ticket.COLS) * CELL_SIZE + CELL_SIZE / 4;
+            for (int y = y0; y < y0 + CELL_SIZE / 2; y++) {
+                Arrays.fill(grey, y * WIDTH + x0, y * WIDTH + x0 + inkWidth, (byte) 40);
+            }
+        }
+        return grey;
+    }
+}
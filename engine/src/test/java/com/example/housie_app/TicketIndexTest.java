@@ -0,0 +1,156 @@
+package com.example.housie_app;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TicketIndexTest {
+    private final List<Ticket> tickets = new StripGenerator(2).generate(12);
+
+    @Test
+    public void markNumber_marksOnlyTheTicketsHoldingIt() {
+        TicketIndex index = indexOf(tickets);
+        // Every number is on exactly one ticket of each strip
+        assertEquals(2, index.getPostingCount(45));
+        assertEquals(2, index.markNumber(45));
+        for (Ticket ticket : tickets) {
+            int cell = cellOf(ticket, 45);
+            assertEquals(cell < 0 ? 0 : 1 << cell, ticket.getMarkedMask());
+        }
+    }
+
+    @Test
+    public void markNumber_reportsOnlyNewMarks() {
+        TicketIndex index = indexOf(tickets);
+        Ticket holder = holderOf(45);
+        holder.markCell(cellOf(holder, 45));
+
+        List<Ticket> reported = new ArrayList<>();
+        assertEquals(1, index.markNumber(45, (ticket, cell) -> {
+            reported.add(ticket);
+            assertEquals(45, ticket.getCell(cell));
+        }));
+        assertEquals(1, reported.size());
+        assertNotSame(holder, reported.get(0));
+        assertEquals(0, index.markNumber(45));
+    }
+
+    @Test
+    public void outOfRangeNumbers_markNothing() {
+        TicketIndex index = indexOf(tickets);
+        assertEquals(0, index.markNumber(0));
+        assertEquals(0, index.markNumber(91));
+        assertEquals(0, index.getPostingCount(-1));
+    }
+
+    @Test
+    public void unmarkNumber_takesTheMarksBack() {
+        TicketIndex index = indexOf(tickets);
+        index.markNumber(7);
+        index.markNumber(8);
+        assertEquals(2, index.unmarkNumber(7));
+        for (Ticket ticket : tickets) {
+            int cell = cellOf(ticket, 8);
+            assertEquals(cell < 0 ? 0 : 1 << cell, ticket.getMarkedMask());
+        }
+        assertEquals(0, index.unmarkNumber(7));
+    }
+
+    @Test
+    public void removedTicket_isNoLongerMarked() {
+        TicketIndex index = indexOf(tickets);
+        Ticket removed = holderOf(45);
+        index.remove(removed);
+        assertEquals(1, index.getPostingCount(45));
+        assertEquals(1, index.markNumber(45));
+        assertEquals(0, removed.getMarkedMask());
+        // Removing twice is harmless
+        index.remove(removed);
+        assertEquals(1, index.getPostingCount(45));
+    }
+
+    @Test
+    public void removals_keepTheRemainingPostings() {
+        TicketIndex index = indexOf(tickets);
+        // Every other ticket, then every other survivor from the back, so
+        // postings move into gaps before they are removed themselves
+        List<Ticket> kept = new ArrayList<>(tickets);
+        for (int i = kept.size() - 2; i >= 0; i -= 2) {
+            index.remove(kept.remove(i));
+        }
+        for (int i = kept.size() - 1; i >= 0; i -= 2) {
+            index.remove(kept.remove(i));
+        }
+        for (int number = 1; number <= TicketIndex.MAX_NUMBER; number++) {
+            int holders = 0;
+            for (Ticket ticket : kept) {
+                if (cellOf(ticket, number) >= 0) {
+                    holders++;
+                }
+            }
+            assertEquals(holders, index.getPostingCount(number));
+            assertEquals(holders, index.markNumber(number));
+        }
+        for (Ticket ticket : kept) {
+            assertEquals(ticket.getNumberedMask(), ticket.getMarkedMask());
+        }
+    }
+
+    @Test
+    public void ticketEditedInPlace_isReindexedByItsOldLayout() {
+        TicketIndex index = indexOf(tickets);
+        Ticket edited = holderOf(45);
+        int cell = cellOf(edited, 45);
+        // A number of the same decade the ticket doesn't hold yet
+        int replacement = 40;
+        while (cellOf(edited, replacement) >= 0) {
+            replacement++;
+        }
+        edited.setNumber(cell / Ticket.COLS, cell % Ticket.COLS, replacement);
+
+        index.update(edited, edited);
+        assertEquals(1, index.getPostingCount(45));
+        assertEquals(3, index.getPostingCount(replacement));
+        assertEquals(3, index.markNumber(replacement));
+        assertTrue(edited.isCellMarked(cell));
+    }
+
+    @Test
+    public void clear_forgetsEveryTicket() {
+        TicketIndex index = indexOf(tickets);
+        index.clear();
+        for (int number = 1; number <= TicketIndex.MAX_NUMBER; number++) {
+            assertEquals(0, index.getPostingCount(number));
+        }
+        assertEquals(0, index.markNumber(45));
+    }
+
+    private static TicketIndex indexOf(List<Ticket> tickets) {
+        TicketIndex index = new TicketIndex();
+        for (Ticket ticket : tickets) {
+            index.add(ticket);
+        }
+        return index;
+    }
+
+    private Ticket holderOf(int number) {
+        for (Ticket ticket : tickets) {
+            if (cellOf(ticket, number) >= 0) {
+                return ticket;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private static int cellOf(Ticket ticket, int number) {
+        for (int cell = 0; cell < Ticket.CELLS; cell++) {
+            if (ticket.getCell(cell) == number) {
+                return cell;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.housie_app;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TicketJournalTest {
+    private static final byte[] LAYOUT = {
+            1, 0, 20, 0, 40, 0, 60, 0, 80,
+            0, 11, 0, 31, 0, 51, 0, 71, 81,
+            2, 12, 21, 0, 41, 0, 61, 0, 0,
+    };
+
+    // Replayed events as readable lines
+    private static final class Recorder implements TicketJournal.Replayer {
+        final List<String> events = new ArrayList<>();
+
+        @Override
+        public void onNumberCalled(int number) {
+            events.add("called " + number);
+        }
+
+        @Override
+        public void onTicketAdded(Ticket ticket) {
+            events.add("added " + describe(ticket));
+        }
+
+        @Override
+        public void onTicketEdited(Ticket ticket) {
+            events.add("edited " + describe(ticket));
+        }
+
+        @Override
+        public void onTicketDeleted(String ticketId) {
+            events.add("deleted " + ticketId);
+        }
+
+        @Override
+        public void onAllDeleted() {
+            events.add("all deleted");
+        }
+
+        @Override
+        public void onNumberUncalled(int number) {
+            events.add("uncalled " + number);
+        }
+
+        private static String describe(Ticket ticket) {
+            return ticket.getTicketId() + " " + Arrays.toString(ticket.copyCells()) + " " + ticket.getMarkedMask();
+        }
+    }
+
+    @Test
+    public void replay_returnsEveryEventInOrder() throws IOException {
+        File file = tempFile();
+        TicketJournal journal = new TicketJournal(file);
+        Ticket ticket = new Ticket("T1", LAYOUT, 0b101);
+        journal.appendTicketAdded(ticket);
+        journal.appendNumberCalled(90);
+        journal.appendNumberUncalled(90);
+        journal.appendTicketEdited(ticket);
+        journal.appendTicketDeleted("T1");
+        journal.appendAllDeleted();
+        assertTrue(journal.hasPending());
+        journal.write(journal.drainPending());
+        assertFalse(journal.hasPending());
+        journal.close();
+
+        Recorder recorder = new Recorder();
+        TicketJournal reopened = new TicketJournal(file);
+        reopened.replay(recorder);
+        String described = Recorder.describe(ticket);
+        assertEquals(Arrays.asList("added " + described, "called 90", "uncalled 90",
+                "edited " + described, "deleted T1", "all deleted"), recorder.events);
+        assertEquals(6, reopened.getEventCount());
+    }
+
+    @Test
+    public void tornTail_isDroppedAndTruncated() throws IOException {
+        File file = tempFile();
+        TicketJournal journal = new TicketJournal(file);
+        journal.appendNumberCalled(7);
+        journal.appendNumberCalled(8);
+        journal.write(journal.drainPending());
+        long complete = file.length();
+        journal.appendTicketAdded(new Ticket("T1", LAYOUT, 0));
+        byte[] ticket = journal.drainPending();
+        // A crash partway through the ticket record
+        journal.write(ticket, 0, ticket.length - 3);
+        journal.close();
+
+        Recorder recorder = new Recorder();
+        journal.replay(recorder);
+        assertEquals(Arrays.asList("called 7", "called 8"), recorder.events);
+        assertEquals(2, journal.getEventCount());
+        assertEquals(complete, file.length());
+
+        // Appends after the replay follow the last complete event
+        journal.appendNumberCalled(9);
+        journal.write(journal.drainPending());
+        journal.close();
+        recorder = new Recorder();
+        journal.replay(recorder);
+        assertEquals(Arrays.asList("called 7", "called 8", "called 9"), recorder.events);
+    }
+
+    @Test
+    public void unknownEvent_endsTheJournal() throws IOException {
+        File file = tempFile();
+        TicketJournal journal = new TicketJournal(file);
+        journal.appendNumberCalled(7);
+        journal.write(journal.drainPending());
+        journal.close();
+        long valid = file.length();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(valid);
+            raf.write(new byte[] {99, 1, 2});
+        }
+
+        Recorder recorder = new Recorder();
+        journal.replay(recorder);
+        assertEquals(Arrays.asList("called 7"), recorder.events);
+        assertEquals(valid, file.length());
+    }
+
+    @Test
+    public void missingFile_replaysNothing() throws IOException {
+        File file = tempFile();
+        assertTrue(file.delete());
+        Recorder recorder = new Recorder();
+        TicketJournal journal = new TicketJournal(file);
+        journal.replay(recorder);
+        assertTrue(recorder.events.isEmpty());
+        assertEquals(0, journal.getEventCount());
+    }
+
+    @Test
+    public void restoredEvents_goBeforeNewerOnes() throws IOException {
+        File file = tempFile();
+        TicketJournal journal = new TicketJournal(file);
+        journal.appendNumberCalled(1);
+        byte[] failed = journal.drainPending();
+        journal.appendNumberCalled(2);
+        journal.restorePending(failed);
+        assertEquals(4, journal.getPendingSize());
+        journal.write(journal.drainPending());
+        journal.close();
+
+        Recorder recorder = new Recorder();
+        journal.replay(recorder);
+        assertEquals(Arrays.asList("called 1", "called 2"), recorder.events);
+    }
+
+    @Test
+    public void reset_emptiesTheJournal() throws IOException {
+        File file = tempFile();
+        TicketJournal journal = new TicketJournal(file);
+        journal.appendNumberCalled(1);
+        journal.write(journal.drainPending());
+        journal.reset();
+        assertEquals(0, file.length());
+
+        Recorder recorder = new Recorder();
+        journal.replay(recorder);
+        assertTrue(recorder.events.isEmpty());
+    }
+
+    private static File tempFile() throws IOException {
+        File file = File.createTempFile("journal", ".bin");
+        file.deleteOnExit();
+        return file;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.housie_app;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TicketLayoutParserTest {
+    private static final int CELL_WIDTH = 60;
+    private static final int CELL_HEIGHT = 50;
+    private static final float CONFIDENCE = 0.95f;
+
+    private final Ticket ticket = new StripGenerator(11).generate(1).get(0);
+    private final TicketLayoutParser parser = new TicketLayoutParser();
+    private final byte[] cells = new byte[Ticket.CELLS];
+    private final float[] confidence = new float[Ticket.CELLS];
+
+    @Test
+    public void tiltedTicket_parsed() {
+        for (float skew : new float[] {-0.08f, 0f, 0.08f}) {
+            addTicket(skew, -1, 0);
+            assertTrue(parser.parse(cells, confidence));
+            assertArrayEquals("skew " + skew, ticket.copyCells(), cells);
+            for (int cell = 0; cell < Ticket.CELLS; cell++) {
+                assertEquals(cells[cell] == 0 ? 1f : CONFIDENCE, confidence[cell], 1e-6f);
+            }
+        }
+    }
+
+    @Test
+    public void headerText_ignored() {
+        addTicket(0.05f, -1, 0);
+        assertFalse(parser.addElement("No.", 0, 20, 40, 40, 0.9f));
+        assertFalse(parser.addElement("Housie", 60, 20, 160, 40, 0.9f));
+        assertTrue(parser.parse(cells, confidence));
+        assertArrayEquals(ticket.copyCells(), cells);
+    }
+
+    @Test
+    public void misreadDecade_keepsItsPositionWithLowConfidence() {
+        int misread = firstFilledCell(1);
+        int col = misread % Ticket.COLS;
+        int wrong = (col + 4) % Ticket.COLS * 10 + 5;
+        addTicket(0.05f, misread, wrong);
+        assertTrue(parser.parse(cells, confidence));
+        assertEquals(wrong, cells[misread]);
+        assertEquals(CONFIDENCE * TicketLayoutParser.MISPLACED_FACTOR, confidence[misread], 1e-6f);
+        for (int cell = 0; cell < Ticket.CELLS; cell++) {
+            if (cell != misread) {
+                assertEquals(ticket.getCell(cell), cells[cell]);
+            }
+        }
+    }
+
+    @Test
+    public void missingNumber_leavesItsRowUnsure() {
+        int missing = firstFilledCell(2);
+        addTicket(0.05f, missing, 0);
+        assertTrue(parser.parse(cells, confidence));
+        assertEquals(0, cells[missing]);
+        assertEquals(TicketLayoutParser.UNSURE_EMPTY, confidence[missing], 0f);
+        for (int cell = 0; cell < Ticket.CELLS; cell++) {
+            if (cells[cell] == 0 && cell / Ticket.COLS != 2) {
+                assertEquals(1f, confidence[cell], 0f);
+            }
+        }
+    }
+
+    @Test
+    public void tooFewNumbers_notParsed() {
+        parser.reset();
+        parser.addElement("5", 30, 30, 50, 60, CONFIDENCE);
+        parser.addElement("17", 90, 30, 110, 60, CONFIDENCE);
+        assertFalse(parser.parse(cells, confidence));
+        assertArrayEquals(new byte[Ticket.CELLS], cells);
+    }
+
+    @Test
+    public void parseNumber_trimsStrayCharacters() {
+        assertEquals(42, TicketLayoutParser.parseNumber("|42"));
+        assertEquals(90, TicketLayoutParser.parseNumber("90."));
+        assertEquals(7, TicketLayoutParser.parseNumber("7"));
+        assertEquals(0, TicketLayoutParser.parseNumber("91"));
+        assertEquals(0, TicketLayoutParser.parseNumber("123"));
+        assertEquals(0, TicketLayoutParser.parseNumber("4a2"));
+        assertEquals(0, TicketLayoutParser.parseNumber("No."));
+    }
+
+    // Adds the ticket's numbers tilted by skew, with one cell's number
+    // replaced (0 drops it) unless replacedCell is -1
+    private void addTicket(float skew, int replacedCell, int replacement) {
+        parser.reset();
+        for (int cell = 0; cell < Ticket.CELLS; cell++) {
+            int number = cell == replacedCell ? replacement : ticket.getCell(cell);
+            if (number == 0) {
+                continue;
+            }
+            int x = (cell % Ticket.COLS) * CELL_WIDTH + CELL_WIDTH / 2;
+            int y = 100 + (cell / Ticket.COLS) * CELL_HEIGHT + CELL_HEIGHT / 2 + Math.round(skew * x);
+            assertTrue(parser.addElement(Integer.toString(number), x - 12, y - 15, x + 12, y + 15, CONFIDENCE));
+        }
+    }
+
+    private int firstFilledCell(int row) {
+        for (int col = 0; col < Ticket.COLS; col++) {
+            if (ticket.getCell(Ticket.cellIndex(row, col)) != 0) {
+                return Ticket.cellIndex(row, col);
+            }
+        }
+        throw new IllegalStateException();
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.housie_app;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TicketTest {
+    private static final byte[] LAYOUT = {
+            1, 0, 20, 0, 40, 0, 60, 0, 80,
+            0, 11, 0, 31, 0, 51, 0, 71, 81,
+            2, 12, 21, 0, 41, 0, 61, 0, 0,
+    };
+
+    @Test
+    public void cells_areCopiedInAndOut() {
+        byte[] cells = LAYOUT.clone();
+        Ticket ticket = new Ticket("T1", cells, 0);
+        cells[0] = 9;
+        assertEquals(1, ticket.getCell(0));
+
+        byte[] copy = ticket.copyCells();
+        copy[0] = 9;
+        assertEquals(1, ticket.getCell(0));
+        assertArrayEquals(LAYOUT, ticket.copyCells());
+    }
+
+    @Test
+    public void numbers_byRowAndColumn() {
+        Ticket ticket = new Ticket("T1", LAYOUT, 0);
+        assertEquals(Integer.valueOf(31), ticket.getNumber(1, 3));
+        assertNull(ticket.getNumber(0, 1));
+
+        ticket.setNumber(0, 1, 15);
+        assertEquals(15, ticket.getCell(Ticket.cellIndex(0, 1)));
+        ticket.setNumber(0, 1, null);
+        assertEquals(0, ticket.getCell(Ticket.cellIndex(0, 1)));
+    }
+
+    @Test
+    public void numberedMask_hasABitPerNumber() {
+        Ticket ticket = new Ticket("T1", LAYOUT, 0);
+        int mask = ticket.getNumberedMask();
+        assertEquals(StripGenerator.NUMBERS_PER_TICKET, Integer.bitCount(mask));
+        for (int cell = 0; cell < Ticket.CELLS; cell++) {
+            assertEquals(LAYOUT[cell] != 0, (mask & (1 << cell)) != 0);
+        }
+    }
+
+    @Test
+    public void marks_areOneBitPerCell() {
+        Ticket ticket = new Ticket("T1", LAYOUT, 0);
+        ticket.markNumber(51);
+        int cell = Ticket.cellIndex(1, 5);
+        assertEquals(1 << cell, ticket.getMarkedMask());
+        assertTrue(ticket.isCellMarked(cell));
+        assertTrue(ticket.isMarked(1, 5));
+
+        ticket.markCell(0);
+        ticket.setMarked(2, 0, true);
+        assertEquals((1 << cell) | 1 | (1 << Ticket.cellIndex(2, 0)), ticket.getMarkedMask());
+
+        ticket.unmarkCell(cell);
+        ticket.setMarked(2, 0, false);
+        assertEquals(1, ticket.getMarkedMask());
+    }
+
+    @Test
+    public void markNumber_ignoresNumbersNotOnTheTicket() {
+        Ticket ticket = new Ticket("T1", LAYOUT, 0);
+        ticket.markNumber(3);
+        assertEquals(0, ticket.getMarkedMask());
+    }
+
+    @Test
+    public void restoredMarks_areKept() {
+        Ticket ticket = new Ticket("T1", LAYOUT, 0b101);
+        assertTrue(ticket.isCellMarked(0));
+        assertFalse(ticket.isCellMarked(1));
+        assertTrue(ticket.isCellMarked(2));
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.housie_app;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.*;
+
+public class TicketTypeAdapterTest {
+    private static final byte[] LAYOUT = {
+            1, 0, 20, 0, 40, 0, 60, 0, 80,
+            0, 11, 0, 31, 0, 51, 0, 71, 81,
+            2, 12, 21, 0, 41, 0, 61, 0, 0,
+    };
+
+    private final TicketTypeAdapter adapter = new TicketTypeAdapter();
+
+    @Test
+    public void compactForm_roundTrips() throws IOException {
+        Ticket ticket = new Ticket("T1", LAYOUT, 0b1000001);
+        String json = adapter.toJson(ticket);
+        assertTrue(json, json.startsWith("{\"id\":\"T1\",\"cells\":[1,0,20,"));
+
+        Ticket read = adapter.fromJson(json);
+        assertEquals("T1", read.getTicketId());
+        assertArrayEquals(LAYOUT, read.copyCells());
+        assertEquals(0b1000001, read.getMarkedMask());
+    }
+
+    @Test
+    public void gson_usesTheAdapterForTickets() {
+        Gson gson = new Gson();
+        Ticket ticket = new Ticket("T1", LAYOUT, 5);
+        String json = gson.toJson(ticket);
+        assertTrue(json, json.contains("\"marks\":5"));
+        Ticket read = gson.fromJson(json, Ticket.class);
+        assertArrayEquals(LAYOUT, read.copyCells());
+        assertEquals(5, read.getMarkedMask());
+    }
+
+    @Test
+    public void reflectiveForm_isRead() throws IOException {
+        Ticket read = adapter.fromJson("{\"ticketId\":\"T2\",\"cells\":" + cellsJson() + ",\"markedMask\":3}");
+        assertEquals("T2", read.getTicketId());
+        assertArrayEquals(LAYOUT, read.copyCells());
+        assertEquals(3, read.getMarkedMask());
+    }
+
+    @Test
+    public void legacyGrid_isMigrated() throws IOException {
+        String json = "{\"ticketId\":\"Old\",\"numbers\":["
+                + "[1,null,20,null,40,null,60,null,80],"
+                + "[null,11,null,31,null,51,null,71,81],"
+                + "[2,12,21,null,41,null,61,null,null]],"
+                + "\"marked\":["
+                + "[true,false,false,false,false,false,false,false,false],"
+                + "[false,false,false,false,false,false,false,false,true],"
+                + "[false,false,false,false,false,false,false,false,false]],"
+                + "\"unknown\":{\"ignored\":[1,2]}}";
+        Ticket read = adapter.fromJson(json);
+        assertEquals("Old", read.getTicketId());
+        assertArrayEquals(LAYOUT, read.copyCells());
+        assertEquals(1 | (1 << Ticket.cellIndex(1, 8)), read.getMarkedMask());
+    }
+
+    @Test
+    public void numbersOutOfRange_areRejected() throws IOException {
+        String bad = "{\"id\":\"Bad\",\"cells\":[1,0,20,0,40,0,60,0,200,"
+                + "0,11,0,31,0,51,0,71,81,2,12,21,0,41,0,61,0,-3],\"marks\":0}";
+        String legacy = "{\"ticketId\":\"Old\",\"numbers\":[[91,null],[null,5]]}";
+        String good = adapter.toJson(new Ticket("Good", LAYOUT, 0));
+        JsonReader in = new JsonReader(new StringReader("[" + bad + "," + legacy + "," + good + "]"));
+        in.beginArray();
+        try {
+            adapter.read(in);
+            fail("Expected the ticket to be rejected");
+        } catch (JsonParseException e) {
+            assertEquals("Ticket Bad has 2 numbers outside 1-90", e.getMessage());
+        }
+        try {
+            adapter.read(in);
+            fail("Expected the ticket to be rejected");
+        } catch (JsonParseException e) {
+            assertEquals("Ticket Old has 1 numbers outside 1-90", e.getMessage());
+        }
+        // The reader is left on the next ticket
+        assertEquals("Good", adapter.read(in).getTicketId());
+        in.endArray();
+    }
+
+    @Test
+    public void nullTicket_roundTrips() throws IOException {
+        assertEquals("null", adapter.toJson(null));
+        assertNull(adapter.fromJson("null"));
+    }
+
+    private static String cellsJson() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int cell = 0; cell < Ticket.CELLS; cell++) {
+            sb.append(cell > 0 ? "," : "").append(LAYOUT[cell]);
+        }
+        return sb.append("]").toString();
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.housie_app;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TicketValidatorTest {
+    // 5 numbers per row, rising down every column
+    private static final byte[] VALID = {
+            1, 0, 20, 0, 40, 0, 60, 0, 80,
+            0, 11, 0, 31, 0, 51, 0, 71, 81,
+            2, 12, 21, 0, 41, 0, 61, 0, 0,
+    };
+
+    @Test
+    public void validLayout_passes() {
+        TicketValidator.Result result = TicketValidator.validate(VALID);
+        assertTrue(result.getSummary(), result.isValid());
+        assertEquals(0, result.getInvalidCells());
+        assertEquals("", result.getSummary());
+        assertTrue(TicketValidator.isValid(VALID));
+    }
+
+    @Test
+    public void numberOutsideItsColumn_isRejected() {
+        byte[] cells = VALID.clone();
+        int cell = Ticket.cellIndex(0, 2);
+        cells[cell] = 15;
+        TicketValidator.Result result = TicketValidator.validate(cells);
+        assertFalse(result.isValid());
+        assertEquals(1 << cell, result.getInvalidCells());
+        assertEquals("Must be 20-29 in this column", result.getCellError(cell));
+        assertFalse(TicketValidator.isValid(cells));
+    }
+
+    @Test
+    public void repeatedNumber_flagsEveryCopy() {
+        byte[] cells = VALID.clone();
+        int above = Ticket.cellIndex(0, 0);
+        int below = Ticket.cellIndex(2, 0);
+        cells[below] = 1;
+        TicketValidator.Result result = TicketValidator.validate(cells);
+        assertFalse(result.isValid());
+        assertEquals((1 << above) | (1 << below), result.getInvalidCells());
+        assertEquals("Number 1 appears twice", result.getCellError(above));
+        assertFalse(TicketValidator.isValid(cells));
+    }
+
+    @Test
+    public void numberNotAboveTheOneAbove_isRejected() {
+        byte[] cells = VALID.clone();
+        int cell = Ticket.cellIndex(2, 4);
+        cells[Ticket.cellIndex(0, 4)] = 45;
+        TicketValidator.Result result = TicketValidator.validate(cells);
+        assertFalse(result.isValid());
+        assertEquals(1 << cell, result.getInvalidCells());
+        assertEquals("Must be larger than the number above", result.getCellError(cell));
+        assertFalse(TicketValidator.isValid(cells));
+    }
+
+    @Test
+    public void rowWithoutFiveNumbers_isRejected() {
+        byte[] cells = VALID.clone();
+        cells[Ticket.cellIndex(1, 8)] = 0;
+        TicketValidator.Result result = TicketValidator.validate(cells);
+        assertFalse(result.isValid());
+        assertEquals(0, result.getInvalidCells());
+        assertEquals(1 << 1, result.getBadRows());
+        assertEquals("Row 2 has 4 numbers, needs 5", result.getSummary());
+        assertFalse(TicketValidator.isValid(cells));
+    }
+
+    @Test
+    public void validateAll_returnsOnlyInvalidTickets() {
+        byte[] broken = VALID.clone();
+        broken[0] = 0;
+        List<TicketValidator.Result> invalid = TicketValidator.validateAll(Arrays.asList(
+                new Ticket("good", VALID, 0), new Ticket("bad", broken, 0)));
+        assertEquals(1, invalid.size());
+        assertEquals("bad", invalid.get(0).getTicket().getTicketId());
+    }
+}
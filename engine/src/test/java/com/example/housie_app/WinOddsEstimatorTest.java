@@ -0,0 +1,134 @@
+package com.example.housie_app;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class WinOddsEstimatorTest {
+    private static final byte[] LAYOUT = {
+            1, 0, 20, 0, 40, 0, 60, 0, 80,
+            0, 11, 0, 31, 0, 51, 0, 71, 81,
+            2, 12, 21, 0, 41, 0, 61, 0, 0,
+    };
+    private static final byte[] OTHER = {
+            1, 0, 20, 0, 40, 0, 60, 0, 80,
+            3, 13, 0, 33, 0, 53, 0, 73, 0,
+            0, 14, 23, 0, 43, 0, 63, 0, 83,
+    };
+
+    private final PatternRegistry registry = PatternRegistry.getDefault();
+    private final int topLine = registry.indexOf("Top Line");
+    private final int centreLine = registry.indexOf("Centre Line");
+
+    @Test
+    public void noOpenPatterns_simulatesNothing() {
+        WinOddsEstimator estimator = new WinOddsEstimator(
+                Collections.singletonList(new Ticket("T1", LAYOUT, 0)), new HashSet<>(), 0L);
+        WinOddsEstimator.Result result = estimator.estimate(1);
+        assertEquals(0, result.getSimulations());
+        assertEquals(0, result.getPatterns().length);
+        assertEquals(-1, result.getFavourite(topLine));
+    }
+
+    @Test
+    public void claimedPatterns_areLeftOut() {
+        Ticket ticket = new Ticket("T1", LAYOUT, 0);
+        Set<Integer> called = call(ticket, 1, 20, 40, 60, 80);
+        WinOddsEstimator estimator = new WinOddsEstimator(Collections.singletonList(ticket), called,
+                (1L << topLine) | (1L << centreLine));
+        WinOddsEstimator.Result result = estimator.estimate(1);
+        assertArrayEquals(new int[] {centreLine}, result.getPatterns());
+        assertTrue(Double.isNaN(result.getExpectedCalls(topLine)));
+    }
+
+    @Test
+    public void singleTicket_expectsTheMaximumOfItsDraws() {
+        WinOddsEstimator estimator = new WinOddsEstimator(
+                Collections.singletonList(new Ticket("T1", LAYOUT, 0)), new HashSet<>(), 1L << topLine);
+        WinOddsEstimator.Result result = estimator.estimate(1);
+        assertTrue(result.getSimulations() >= 4096);
+        assertEquals(1.0, result.getClaimProbability(topLine, 0), 1e-9);
+        // The last of 5 numbers drawn from 90 comes on average at call 5 * 91 / 6
+        assertEquals(5 * 91 / 6.0, result.getExpectedCalls(topLine), 1.0);
+    }
+
+    @Test
+    public void identicalTickets_splitTheClaim() {
+        List<Ticket> tickets = Arrays.asList(new Ticket("T1", LAYOUT, 0), new Ticket("T2", LAYOUT, 0));
+        WinOddsEstimator.Result result = new WinOddsEstimator(tickets, new HashSet<>(), 1L << topLine).estimate(1);
+        assertEquals(0.5, result.getClaimProbability(topLine, 0), 1e-9);
+        assertEquals(0.5, result.getClaimProbability(topLine, 1), 1e-9);
+    }
+
+    @Test
+    public void nearerTicket_isTheFavourite() {
+        Ticket near = new Ticket("T1", LAYOUT, 0);
+        Ticket far = new Ticket("T2", OTHER, 0);
+        Set<Integer> called = call(near, 11, 31, 51, 71);
+        WinOddsEstimator estimator = new WinOddsEstimator(Arrays.asList(far, near), called, 1L << centreLine);
+        WinOddsEstimator.Result result = estimator.estimate(1);
+        assertEquals(1, result.getFavourite(centreLine));
+        double total = result.getClaimProbability(centreLine, 0) + result.getClaimProbability(centreLine, 1);
+        assertEquals(1.0, total, 1e-9);
+        // The other ticket only wins if 81 comes after all five of its numbers
+        assertEquals(5 / 6.0, result.getClaimProbability(centreLine, 1), 0.02);
+    }
+
+    @Test
+    public void sameSeed_givesTheSameOdds() {
+        List<Ticket> tickets = new StripGenerator(3).generate(12);
+        WinOddsEstimator.Result a = new WinOddsEstimator(tickets, new HashSet<>(), 1L << topLine).estimate(7);
+        WinOddsEstimator.Result b = new WinOddsEstimator(tickets, new HashSet<>(), 1L << topLine).estimate(7);
+        assertEquals(a.getSimulations(), b.getSimulations());
+        for (int t = 0; t < tickets.size(); t++) {
+            assertEquals(a.getClaimProbability(topLine, t), b.getClaimProbability(topLine, t), 0.0);
+        }
+    }
+
+    @Test
+    public void timeBudget_boundsALargeBook() {
+        List<Ticket> tickets = new StripGenerator(1).generate(6000);
+        WinOddsEstimator estimator = new WinOddsEstimator(tickets, new HashSet<>(), -1L);
+        estimator.setTimeBudgetMillis(50);
+        long start = System.nanoTime();
+        WinOddsEstimator.Result result = estimator.estimate(1);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(elapsedMillis + " ms", elapsedMillis < 1000);
+        assertTrue(result.getSimulations() < 4096);
+    }
+
+    @Test
+    public void interruptedCaller_stopsAtOnce() {
+        List<Ticket> tickets = new StripGenerator(1).generate(6000);
+        WinOddsEstimator estimator = new WinOddsEstimator(tickets, new HashSet<>(), -1L);
+        estimator.setTimeBudgetMillis(60_000);
+        Thread.currentThread().interrupt();
+        long start = System.nanoTime();
+        WinOddsEstimator.Result result;
+        try {
+            result = estimator.estimate(1);
+        } finally {
+            // The interrupt is kept for the caller
+            assertTrue(Thread.interrupted());
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(elapsedMillis + " ms", elapsedMillis < 1000);
+        assertTrue(result.getSimulations() < 4096);
+    }
+
+    // Marks the numbers on the ticket and returns them as the called set
+    private static Set<Integer> call(Ticket ticket, int... numbers) {
+        Set<Integer> called = new HashSet<>();
+        for (int number : numbers) {
+            ticket.markNumber(number);
+            called.add(number);
+        }
+        return called;
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.housie_app;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class WinTrackerTest {
+    private static final byte[] LAYOUT = {
+            1, 0, 20, 0, 40, 0, 60, 0, 80,
+            0, 11, 0, 31, 0, 51, 0, 71, 81,
+            2, 12, 21, 0, 41, 0, 61, 0, 0,
+    };
+    private static final int[] TOP_LINE = {1, 20, 40, 60, 80};
+
+    private final PatternRegistry registry = PatternRegistry.getDefault();
+    private final int topLine = registry.indexOf("Top Line");
+    private final int fourCorners = registry.indexOf("Four Corners");
+    private final Ticket first = new Ticket("T1", LAYOUT, 0);
+    private final Ticket second = new Ticket("T2", LAYOUT, 0);
+    private final List<Ticket> tickets = Arrays.asList(first, second);
+    private final TicketIndex index = new TicketIndex();
+
+    public WinTrackerTest() {
+        for (Ticket ticket : tickets) {
+            index.add(ticket);
+        }
+    }
+
+    @Test
+    public void completedPattern_isReportedOnce() {
+        WinTracker tracker = new WinTracker(tickets, 1L << topLine);
+        for (int i = 0; i < TOP_LINE.length - 1; i++) {
+            index.markNumber(TOP_LINE[i], tracker);
+            assertTrue(tracker.drainEvents().isEmpty());
+        }
+        index.markNumber(TOP_LINE[TOP_LINE.length - 1], tracker);
+        List<WinTracker.WinEvent> events = tracker.drainEvents();
+        assertEquals(2, events.size());
+        assertSame(first, events.get(0).ticket);
+        assertEquals(0, events.get(0).position);
+        assertEquals(topLine, events.get(0).pattern);
+        assertEquals(1, events.get(1).position);
+        assertTrue(tracker.drainEvents().isEmpty());
+
+        // Further marks don't announce it again
+        index.markNumber(11, tracker);
+        assertTrue(tracker.drainEvents().isEmpty());
+    }
+
+    @Test
+    public void disabledPatterns_areNotTracked() {
+        WinTracker tracker = new WinTracker(tickets, 1L << fourCorners);
+        for (int number : TOP_LINE) {
+            index.markNumber(number, tracker);
+        }
+        assertTrue(tracker.drainEvents().isEmpty());
+    }
+
+    @Test
+    public void patternCompleteBeforeTheGame_isNotAnnounced() {
+        first.markNumber(1);
+        first.markNumber(20);
+        first.markNumber(40);
+        first.markNumber(60);
+        first.markNumber(80);
+        WinTracker tracker = new WinTracker(tickets, 1L << topLine);
+        for (int number : TOP_LINE) {
+            index.markNumber(number, tracker);
+        }
+        List<WinTracker.WinEvent> events = tracker.drainEvents();
+        assertEquals(1, events.size());
+        assertSame(second, events.get(0).ticket);
+    }
+
+    @Test
+    public void closedPattern_isNoLongerAwarded() {
+        WinTracker tracker = new WinTracker(tickets, 1L << topLine);
+        for (int number : TOP_LINE) {
+            first.markNumber(number);
+            tracker.onCellMarked(first, cellOf(number));
+        }
+        assertEquals(1, tracker.drainEvents().size());
+        tracker.closePattern(topLine);
+        assertFalse(tracker.isPatternActive(topLine));
+
+        for (int number : TOP_LINE) {
+            second.markNumber(number);
+            tracker.onCellMarked(second, cellOf(number));
+        }
+        assertTrue(tracker.drainEvents().isEmpty());
+        // The claimant keeps the prize, the later ticket doesn't get it
+        assertEquals(1L << topLine, tracker.getPrizePatterns(first));
+        assertEquals(0L, tracker.getPrizePatterns(second));
+    }
+
+    @Test
+    public void unmarkedCell_canCompleteThePatternAgain() {
+        WinTracker tracker = new WinTracker(tickets, 1L << topLine);
+        for (int number : TOP_LINE) {
+            index.markNumber(number, tracker);
+        }
+        assertEquals(2, tracker.drainEvents().size());
+
+        int cell = cellOf(80);
+        first.unmarkCell(cell);
+        tracker.onCellUnmarked(first, cell);
+        assertEquals(0L, first.getWinResult(tracker.getPrizePatterns(first)).getCompletedPatterns());
+        first.markCell(cell);
+        tracker.onCellMarked(first, cell);
+        List<WinTracker.WinEvent> events = tracker.drainEvents();
+        assertEquals(1, events.size());
+        assertSame(first, events.get(0).ticket);
+    }
+
+    @Test
+    public void drainChanges_listsTheMarkedTickets() {
+        WinTracker tracker = new WinTracker(tickets, 1L << topLine);
+        index.markNumber(1, tracker);
+        index.markNumber(11, tracker);
+        List<WinTracker.MarkChange> changes = tracker.drainChanges();
+        assertEquals(2, changes.size());
+        assertEquals(0, changes.get(0).position);
+        assertEquals((1 << cellOf(1)) | (1 << cellOf(11)), changes.get(0).cells);
+        assertEquals(1, changes.get(1).position);
+        assertTrue(tracker.drainChanges().isEmpty());
+    }
+
+    private static int cellOf(int number) {
+        for (int cell = 0; cell < Ticket.CELLS; cell++) {
+            if (LAYOUT[cell] == number) {
+                return cell;
+            }
+        }
+        throw new IllegalArgumentException();
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.housie_app;
+
+import com.example.housie_app.WinningPattern.Selector;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class WinningPatternTest {
+    private static final byte[] LAYOUT = {
+            1, 0, 20, 0, 40, 0, 60, 0, 80,
+            0, 11, 0, 31, 0, 51, 0, 71, 81,
+            2, 12, 21, 0, 41, 0, 61, 0, 0,
+    };
+    private static final int TOP_ROW = cells(0, 2, 4, 6, 8);
+    private static final int CENTRE_ROW = cells(10, 12, 14, 16, 17);
+
+    @Test
+    public void rows_coverTheirNumbers() {
+        WinningPattern topLine = WinningPattern.builder("Top").rows(0).build();
+        assertEquals(TOP_ROW, topLine.compileMask(LAYOUT));
+        assertEquals(5, topLine.requiredCount(TOP_ROW));
+
+        // No selectors means the whole ticket
+        WinningPattern fullHouse = WinningPattern.builder("Full").build();
+        int mask = fullHouse.compileMask(LAYOUT);
+        assertEquals(StripGenerator.NUMBERS_PER_TICKET, Integer.bitCount(mask));
+    }
+
+    @Test
+    public void positionalSelectors_pickCellsWithinTheRow() {
+        assertEquals(cells(0, 2, 4), compile(Selector.first(0, 3)));
+        assertEquals(cells(16, 17), compile(Selector.last(1, 2)));
+        assertEquals(cells(14), compile(Selector.middle(1, 1)));
+        assertEquals(cells(12, 14, 16), compile(Selector.middle(1, 3)));
+        assertEquals(cells(0), compile(Selector.position(0, 0)));
+        // An empty cell selects nothing
+        assertEquals(0, compile(Selector.position(0, 1)));
+    }
+
+    @Test
+    public void strictSelector_makesShortRowsUnreachable() {
+        WinningPattern pattern = WinningPattern.builder("Six").select(Selector.firstExactly(0, 6)).build();
+        int mask = pattern.compileMask(LAYOUT);
+        assertEquals(-1, mask);
+        assertEquals(WinningPattern.UNREACHABLE, pattern.requiredCount(mask));
+        // The lenient form takes what the row has
+        assertEquals(TOP_ROW, compile(Selector.first(0, 6)));
+    }
+
+    @Test
+    public void range_selectsNumbersAnywhere() {
+        assertEquals(cells(0, 2, 10, 18, 19, 20), compile(Selector.range(1, 30)));
+        assertEquals(0, compile(Selector.range(82, 90)));
+    }
+
+    @Test
+    public void any_needsOnlySomeOfTheCells() {
+        WinningPattern quick = WinningPattern.builder("Quick").any(3).rows(0, 1).build();
+        int mask = quick.compileMask(LAYOUT);
+        assertEquals(TOP_ROW | CENTRE_ROW, mask);
+        assertEquals(3, quick.requiredCount(mask));
+    }
+
+    @Test
+    public void registry_indexesPatternsByName() {
+        PatternRegistry registry = new PatternRegistry();
+        int first = registry.register(WinningPattern.builder("A").rows(0).build());
+        int second = registry.register(WinningPattern.builder("B").rows(1).build());
+        assertEquals(0, first);
+        assertEquals(1, second);
+        assertEquals(2, registry.size());
+        assertEquals(second, registry.indexOf("B"));
+        assertEquals(-1, registry.indexOf("C"));
+        assertEquals("A", registry.get(first).getName());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void registry_rejectsDuplicateNames() {
+        PatternRegistry registry = new PatternRegistry();
+        registry.register(WinningPattern.builder("A").rows(0).build());
+        registry.register(WinningPattern.builder("A").rows(1).build());
+    }
+
+    @Test
+    public void ticket_completesPatternsFromItsMarks() {
+        PatternRegistry registry = PatternRegistry.getDefault();
+        int topLine = registry.indexOf("Top Line");
+        int quick = registry.indexOf("Quick-12");
+        Ticket ticket = new Ticket("T1", LAYOUT, 0);
+        assertEquals(TOP_ROW, ticket.getPatternMask(topLine));
+        assertEquals(12, ticket.getPatternRequired(quick));
+
+        for (int bits = TOP_ROW | CENTRE_ROW; bits != 0; bits &= bits - 1) {
+            ticket.markCell(Integer.numberOfTrailingZeros(bits));
+        }
+        assertTrue(ticket.isPatternComplete(topLine));
+        assertFalse(ticket.isPatternComplete(quick));
+
+        ticket.markNumber(2);
+        ticket.markNumber(12);
+        assertTrue(ticket.isPatternComplete(quick));
+        long completed = ticket.getWinResult(-1L).getCompletedPatterns();
+        assertTrue((completed & (1L << topLine)) != 0);
+        assertTrue((completed & (1L << quick)) != 0);
+        assertEquals(0, ticket.getWinResult(0L).getCompletedPatterns());
+    }
+
+    private static int compile(Selector selector) {
+        return WinningPattern.builder("Test").select(selector).build().compileMask(LAYOUT);
+    }
+
+    private static int cells(int... cells) {
+        int mask = 0;
+        for (int cell : cells) {
+            mask |= 1 << cell;
+        }
+        return mask;
+    }
+}